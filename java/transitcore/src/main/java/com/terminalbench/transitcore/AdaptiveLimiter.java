@@ -0,0 +1,100 @@
+package com.terminalbench.transitcore;
+
+/**
+ * Gradient-style concurrency limiter that replaces the fixed 32/16/8 tiers of
+ * {@link QueueGovernor#nextPolicy} with a limit derived from observed latency and errors.
+ *
+ * <p>Two exponential averages of round-trip time are kept: a fast one tracking the current
+ * latency and a slow one acting as the no-load baseline. Each sample moves the limit toward
+ * {@code limit * gradient + sqrt(limit)} where {@code gradient = clamp(tolerance * slow / fast,
+ * 0.5, 1)}: latency within tolerance of the baseline lets the limit grow by a queue allowance,
+ * rising latency shrinks it in proportion. A failed call cuts the limit multiplicatively. Growth
+ * is skipped while callers use less than half the limit, so an idle period cannot inflate it.
+ * When the fast average runs far below the baseline (downstream recovered), the baseline is
+ * pulled down toward it instead of waiting for the slow average to catch up.
+ */
+public final class AdaptiveLimiter {
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final double smoothing;
+    private final double fastWeight;
+    private final double slowWeight;
+    private final double failureBackoff;
+
+    private double limit;
+    private double fastRtt;
+    private double slowRtt;
+    private boolean congested;
+    private volatile QueueGovernor.QueuePolicy policy;
+
+    public AdaptiveLimiter(int initialLimit, int minLimit, int maxLimit) {
+        this(initialLimit, minLimit, maxLimit, 1.5, 0.2, 10, 500, 0.9);
+    }
+
+    public AdaptiveLimiter(int initialLimit, int minLimit, int maxLimit, double tolerance, double smoothing,
+                           int fastWindow, int slowWindow, double failureBackoff) {
+        if (minLimit <= 0 || minLimit > maxLimit || initialLimit < minLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("limits must satisfy 0 < min <= initial <= max");
+        }
+        if (tolerance < 1.0 || smoothing <= 0 || smoothing > 1 || failureBackoff <= 0 || failureBackoff >= 1) {
+            throw new IllegalArgumentException("tolerance >= 1, smoothing in (0, 1], failureBackoff in (0, 1)");
+        }
+        if (fastWindow <= 0 || slowWindow <= fastWindow) {
+            throw new IllegalArgumentException("windows must satisfy 0 < fast < slow");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.smoothing = smoothing;
+        this.fastWeight = 2.0 / (fastWindow + 1);
+        this.slowWeight = 2.0 / (slowWindow + 1);
+        this.failureBackoff = failureBackoff;
+        this.limit = initialLimit;
+        this.policy = new QueueGovernor.QueuePolicy(initialLimit, false);
+    }
+
+    public QueueGovernor.QueuePolicy policy() {
+        return policy;
+    }
+
+    public int limit() {
+        return policy.maxInflight();
+    }
+
+    public synchronized void onSample(long rttNanos, int inflight, boolean failed) {
+        if (rttNanos <= 0) {
+            throw new IllegalArgumentException("rttNanos must be positive");
+        }
+        if (fastRtt == 0) {
+            fastRtt = rttNanos;
+            slowRtt = rttNanos;
+        } else {
+            fastRtt += fastWeight * (rttNanos - fastRtt);
+            slowRtt += slowWeight * (rttNanos - slowRtt);
+            if (slowRtt > 2 * fastRtt) {
+                slowRtt = 0.95 * slowRtt + 0.05 * fastRtt;
+            }
+        }
+
+        double next;
+        if (failed) {
+            next = limit * failureBackoff;
+            congested = true;
+        } else {
+            double gradient = Math.max(0.5, Math.min(1.0, tolerance * slowRtt / fastRtt));
+            congested = gradient < 1.0;
+            if (!congested && inflight < limit / 2) {
+                return;
+            }
+            double target = limit * gradient + Math.sqrt(limit);
+            next = limit * (1 - smoothing) + target * smoothing;
+        }
+        limit = Math.max(minLimit, Math.min(maxLimit, next));
+        int rounded = (int) limit;
+        QueueGovernor.QueuePolicy current = policy;
+        if (current.maxInflight() != rounded || current.dropOldest() != congested) {
+            policy = new QueueGovernor.QueuePolicy(rounded, congested);
+        }
+    }
+}
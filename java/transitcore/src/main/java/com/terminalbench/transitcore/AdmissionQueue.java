@@ -0,0 +1,128 @@
+package com.terminalbench.transitcore;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded multi-producer/multi-consumer ring that enforces a {@link QueueGovernor.QueuePolicy}.
+ *
+ * <p>The ring is a sequence-numbered array in the style of Vyukov's bounded MPMC queue: each slot
+ * carries the ticket that may use it next, so producers and consumers only CAS their own cursor.
+ * The policy's {@code maxInflight} is the admitted depth, capped at the ring capacity. A producer
+ * finding the queue at that depth evicts the head when the policy drops oldest and is throttled
+ * otherwise. The check reads the consumer cursor before claiming a ticket, and that cursor only
+ * moves forward, so the limit holds exactly even with concurrent producers. Policies are swapped
+ * with a volatile write; lowering the limit below the current depth lets consumers drain (or
+ * producers evict) down to it rather than blocking anyone.
+ */
+public final class AdmissionQueue<E> {
+    private final Object[] slots;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder throttled = new LongAdder();
+    private volatile QueueGovernor.QueuePolicy policy;
+
+    public AdmissionQueue(int capacity, QueueGovernor.QueuePolicy policy) {
+        if (capacity <= 0 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("capacity must be in [1, 2^30]");
+        }
+        int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+        this.slots = new Object[size];
+        this.sequences = new AtomicLongArray(size);
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+        applyPolicy(policy);
+    }
+
+    public void applyPolicy(QueueGovernor.QueuePolicy policy) {
+        if (policy.maxInflight() <= 0) {
+            throw new IllegalArgumentException("maxInflight must be positive");
+        }
+        this.policy = policy;
+    }
+
+    public QueueGovernor.QueuePolicy policy() {
+        return policy;
+    }
+
+    public boolean offer(E element) {
+        if (element == null) {
+            throw new IllegalArgumentException("element must not be null");
+        }
+        while (true) {
+            QueueGovernor.QueuePolicy current = policy;
+            int limit = Math.min(current.maxInflight(), slots.length);
+            long ticket = tail.get();
+            long observedHead = head.get();
+            if (ticket - observedHead >= limit) {
+                if (!current.dropOldest()) {
+                    throttled.increment();
+                    return false;
+                }
+                if (poll() != null) {
+                    dropped.increment();
+                }
+                continue;
+            }
+            int slot = (int) ticket & mask;
+            long sequence = sequences.get(slot);
+            if (sequence == ticket) {
+                if (tail.compareAndSet(ticket, ticket + 1)) {
+                    slots[slot] = element;
+                    sequences.set(slot, ticket + 1);
+                    return true;
+                }
+            } else if (sequence < ticket) {
+                // A consumer has claimed this slot but not yet released it; retry once it does.
+                Thread.onSpinWait();
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public E poll() {
+        while (true) {
+            long ticket = head.get();
+            int slot = (int) ticket & mask;
+            long sequence = sequences.get(slot);
+            if (sequence == ticket + 1) {
+                if (head.compareAndSet(ticket, ticket + 1)) {
+                    E element = (E) slots[slot];
+                    slots[slot] = null;
+                    sequences.set(slot, ticket + slots.length);
+                    return element;
+                }
+            } else if (sequence < ticket + 1) {
+                if (tail.get() == ticket) {
+                    return null;
+                }
+                // A producer has claimed this slot but not yet published its element.
+                Thread.onSpinWait();
+            }
+        }
+    }
+
+    // Tail before head, as in offer: the estimate may lag but never exceeds the admitted limit.
+    public int depth() {
+        long observedTail = tail.get();
+        return (int) Math.max(0, observedTail - head.get());
+    }
+
+    public int capacity() {
+        return slots.length;
+    }
+
+    public long dropped() {
+        return dropped.sum();
+    }
+
+    public long throttled() {
+        return throttled.sum();
+    }
+}
@@ -0,0 +1,129 @@
+package com.terminalbench.transitcore;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Route assignment map that remembers what changed in each committed version, so churn between
+ * two retained versions costs O(changes) rather than the two full-map scans of
+ * {@link RoutingHeuristics#churnRate}.
+ *
+ * <p>Churn follows the intended {@code churnRate} contract: keys whose assignment differs
+ * between the two versions (added, removed or reassigned) over the number of keys present in
+ * either version. Writes accumulate until {@link #commit()}; only the newest
+ * {@code retainedVersions} versions can be compared. Not thread-safe.
+ */
+public final class AssignmentLog {
+    private record Change(String key, String before, String after) {}
+
+    private record Version(long version, int size, List<Change> changes) {}
+
+    private final Map<String, String> assignments = new HashMap<>();
+    private final ArrayDeque<Version> versions = new ArrayDeque<>();
+    private final int retainedVersions;
+    private List<Change> pending = new ArrayList<>();
+    private long version;
+    private long oldestVersion;
+    private int oldestSize;
+
+    public AssignmentLog(int retainedVersions) {
+        if (retainedVersions <= 0) {
+            throw new IllegalArgumentException("retainedVersions must be positive");
+        }
+        this.retainedVersions = retainedVersions;
+    }
+
+    public String get(String key) {
+        return assignments.get(key);
+    }
+
+    public int size() {
+        return assignments.size();
+    }
+
+    public Map<String, String> current() {
+        return Collections.unmodifiableMap(assignments);
+    }
+
+    public long version() {
+        return version;
+    }
+
+    public long oldestVersion() {
+        return oldestVersion;
+    }
+
+    public void put(String key, String value) {
+        Objects.requireNonNull(value, "value");
+        String before = assignments.put(key, value);
+        if (!value.equals(before)) {
+            pending.add(new Change(key, before, value));
+        }
+    }
+
+    public void remove(String key) {
+        String before = assignments.remove(key);
+        if (before != null) {
+            pending.add(new Change(key, before, null));
+        }
+    }
+
+    public long commit() {
+        version += 1;
+        versions.addLast(new Version(version, assignments.size(), pending));
+        pending = new ArrayList<>();
+        while (versions.size() > retainedVersions) {
+            Version dropped = versions.removeFirst();
+            oldestVersion = dropped.version();
+            oldestSize = dropped.size();
+        }
+        return version;
+    }
+
+    public double churnRate(long fromVersion, long toVersion) {
+        if (fromVersion < oldestVersion || toVersion > version || fromVersion > toVersion) {
+            throw new IllegalArgumentException(
+                    "versions must satisfy " + oldestVersion + " <= from <= to <= " + version);
+        }
+        // Net effect per touched key: the value it had at fromVersion and the one at toVersion.
+        Map<String, String[]> net = new HashMap<>();
+        int fromSize = oldestSize;
+        Iterator<Version> iterator = versions.iterator();
+        while (iterator.hasNext()) {
+            Version entry = iterator.next();
+            if (entry.version() <= fromVersion) {
+                fromSize = entry.size();
+                continue;
+            }
+            if (entry.version() > toVersion) {
+                break;
+            }
+            for (Change change : entry.changes()) {
+                String[] ends = net.get(change.key());
+                if (ends == null) {
+                    net.put(change.key(), new String[] {change.before(), change.after()});
+                } else {
+                    ends[1] = change.after();
+                }
+            }
+        }
+        int changed = 0;
+        int added = 0;
+        for (String[] ends : net.values()) {
+            if (!Objects.equals(ends[0], ends[1])) {
+                changed += 1;
+            }
+            if (ends[0] == null && ends[1] != null) {
+                added += 1;
+            }
+        }
+        int union = fromSize + added;
+        return union == 0 ? 0.0 : (double) changed / union;
+    }
+}
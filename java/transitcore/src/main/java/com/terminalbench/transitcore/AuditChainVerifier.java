@@ -0,0 +1,174 @@
+package com.terminalbench.transitcore;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Verifies an {@link AuditLog} directory segment by segment on a fork-join pool.
+ *
+ * <p>Each segment is checked on its own from the start hash in its header: every stored hash is
+ * recomputed over the payload bytes, sequences must strictly increase, and a sealed segment's
+ * footer must agree with what was read. The per-segment summaries are then stitched: each
+ * segment must start from the previous segment's end hash and above its highest sequence.
+ */
+public final class AuditChainVerifier {
+    public record SegmentSummary(Path path, long startHash, long endHash, long minSequence, long maxSequence,
+                                 long records, boolean sealed, String failure) {
+        public boolean valid() {
+            return failure == null;
+        }
+    }
+
+    public record Verification(boolean valid, long records, long lastSequence, long lastHash, String failure,
+                               List<SegmentSummary> segments) {}
+
+    private final ForkJoinPool pool;
+
+    public AuditChainVerifier() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public AuditChainVerifier(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    public Verification verify(Path directory) throws IOException {
+        return verify(directory, 0L);
+    }
+
+    public Verification verify(Path directory, long genesisHash) throws IOException {
+        List<Path> paths = AuditLog.segmentFiles(directory);
+        List<SegmentTask> tasks = new ArrayList<>(paths.size());
+        for (Path path : paths) {
+            tasks.add(new SegmentTask(path));
+        }
+        List<SegmentSummary> summaries = new ArrayList<>(paths.size());
+        try {
+            pool.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(tasks)));
+            for (SegmentTask task : tasks) {
+                summaries.add(task.join());
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        long expectedStart = genesisHash;
+        long lastSequence = 0;
+        long records = 0;
+        for (SegmentSummary summary : summaries) {
+            if (!summary.valid()) {
+                return new Verification(false, records, lastSequence, expectedStart, summary.failure(), summaries);
+            }
+            if (summary.startHash() != expectedStart) {
+                return new Verification(false, records, lastSequence, expectedStart,
+                        summary.path().getFileName() + ": start hash does not continue the previous segment", summaries);
+            }
+            if (summary.records() > 0 && summary.minSequence() <= lastSequence) {
+                return new Verification(false, records, lastSequence, expectedStart,
+                        summary.path().getFileName() + ": sequence " + summary.minSequence() + " not above " + lastSequence,
+                        summaries);
+            }
+            expectedStart = summary.endHash();
+            records += summary.records();
+            if (summary.records() > 0) {
+                lastSequence = summary.maxSequence();
+            }
+        }
+        return new Verification(true, records, lastSequence, expectedStart, null, summaries);
+    }
+
+    static SegmentSummary verifySegment(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("segment too large to map: " + path);
+            }
+            if (size < AuditLog.SEGMENT_HEADER_BYTES) {
+                return failed(path, 0, "truncated header");
+            }
+            MappedByteBuffer bytes = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (bytes.getLong(0) != AuditLog.SEGMENT_MAGIC) {
+                return failed(path, 0, "bad segment magic");
+            }
+            long firstSequence = bytes.getLong(Long.BYTES);
+            long startHash = bytes.getLong(2 * Long.BYTES);
+            int end = (int) size;
+            int footer = -1;
+
+            long hash = startHash;
+            long previous = firstSequence - 1;
+            long records = 0;
+            int at = AuditLog.SEGMENT_HEADER_BYTES;
+            while (at < end) {
+                if (at + AuditLog.RECORD_HEADER_BYTES > end) {
+                    return failed(path, startHash, "torn record header at offset " + at);
+                }
+                long sequence = bytes.getLong(at);
+                if (sequence == AuditLog.FOOTER_TAG) {
+                    if (at + AuditLog.FOOTER_BYTES != end || !AuditLog.validFooter(bytes, at)) {
+                        return failed(path, startHash, "corrupt footer at offset " + at);
+                    }
+                    footer = at + AuditLog.RECORD_HEADER_BYTES;
+                    break;
+                }
+                long stored = bytes.getLong(at + Long.BYTES);
+                int length = bytes.getInt(at + 2 * Long.BYTES);
+                int payload = at + AuditLog.RECORD_HEADER_BYTES;
+                if (length < 0 || payload + length > end) {
+                    return failed(path, startHash, "torn record at sequence " + sequence);
+                }
+                if (records == 0 ? sequence != firstSequence : sequence <= previous) {
+                    return failed(path, startHash, "sequence " + sequence + " out of order after " + previous);
+                }
+                hash = AuditTrail.appendHash(hash, bytes, payload, length);
+                if (hash != stored) {
+                    return failed(path, startHash, "hash mismatch at sequence " + sequence);
+                }
+                previous = sequence;
+                records += 1;
+                at = payload + length;
+            }
+
+            if (footer >= 0 && (bytes.getLong(footer) != startHash
+                    || bytes.getLong(footer + Long.BYTES) != firstSequence
+                    || bytes.getLong(footer + 2 * Long.BYTES) != previous
+                    || bytes.getLong(footer + 3 * Long.BYTES) != hash
+                    || bytes.getLong(footer + 4 * Long.BYTES) != records)) {
+                return failed(path, startHash, "footer disagrees with segment contents");
+            }
+            return new SegmentSummary(path, startHash, hash, firstSequence, previous, records, footer >= 0, null);
+        }
+    }
+
+    private static SegmentSummary failed(Path path, long startHash, String reason) {
+        return new SegmentSummary(path, startHash, startHash, 0, 0, 0, false, path.getFileName() + ": " + reason);
+    }
+
+    @SuppressWarnings("serial")
+    private static final class SegmentTask extends RecursiveTask<SegmentSummary> {
+        private final Path path;
+
+        SegmentTask(Path path) {
+            this.path = path;
+        }
+
+        @Override
+        protected SegmentSummary compute() {
+            try {
+                return verifySegment(path);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
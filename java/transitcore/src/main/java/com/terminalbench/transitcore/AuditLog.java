@@ -0,0 +1,406 @@
+package com.terminalbench.transitcore;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Segmented, append-only, hash-chained audit log with group commit.
+ *
+ * <p>Each segment starts with {@code [magic:8][firstSequence:8][startHash:8]} and holds records
+ * of {@code [sequence:8][hash:8][length:4][payload:UTF-8]}, where {@code hash} chains
+ * {@link AuditTrail#appendHash} over the encoded payload bytes. Concurrent appenders queue up;
+ * whichever thread finds no commit in progress becomes the leader, encodes up to
+ * {@code maxBatch} queued payloads straight into one buffer, writes it and issues a single
+ * fsync for the whole group before releasing every waiter. A full segment is sealed with a
+ * footer framed like a record whose sequence is {@link #FOOTER_TAG} (real sequences start at 1),
+ * whose hash slot holds a checksum of the body, and whose body is
+ * {@code [startHash:8][minSequence:8][maxSequence:8][endHash:8][records:8][magic:8]}. Readers
+ * only recognise it at a record boundary reached by walking the segment, so no payload can pass
+ * for a footer, and {@link AuditChainVerifier} can check segments independently.
+ */
+public final class AuditLog implements AutoCloseable {
+    public record Appended(long sequence, long hash) {}
+
+    static final long SEGMENT_MAGIC = 0x5443_4155_4449_5431L;
+    static final int SEGMENT_HEADER_BYTES = 3 * Long.BYTES;
+    static final int RECORD_HEADER_BYTES = 2 * Long.BYTES + Integer.BYTES;
+    static final long FOOTER_MAGIC = 0x5443_4155_4446_5452L;
+    static final long FOOTER_TAG = -1L;
+    static final int FOOTER_BODY_BYTES = 6 * Long.BYTES;
+    static final int FOOTER_BYTES = RECORD_HEADER_BYTES + FOOTER_BODY_BYTES;
+    private static final int BATCH_BUFFER_BYTES = 1 << 20;
+
+    private final Path directory;
+    private final long segmentBytes;
+    private final int maxBatch;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition committed = lock.newCondition();
+    private final ArrayDeque<Pending> queue = new ArrayDeque<>();
+    private boolean flushing;
+    private boolean closed;
+    private IOException broken;
+    private long batches;
+    // What the last successful commit made durable; read and written only under the lock.
+    private long lastSequence;
+    private long lastHash;
+    private int segments;
+
+    // Owned by the current leader; handed over through the lock.
+    private final ByteBuffer batch = ByteBuffer.allocateDirect(BATCH_BUFFER_BYTES);
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private FileChannel segment;
+    private long segmentPosition;
+    private long firstSequenceOfSegment;
+    private long segmentStartHash;
+    private int segmentCount;
+    private long chainSequence;
+    private long chainHash;
+
+    public AuditLog(Path directory, long segmentBytes, int maxBatch) throws IOException {
+        if (segmentBytes < SEGMENT_HEADER_BYTES + RECORD_HEADER_BYTES || segmentBytes > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("segmentBytes must fit one mappable segment");
+        }
+        if (maxBatch <= 0) {
+            throw new IllegalArgumentException("maxBatch must be positive");
+        }
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.maxBatch = maxBatch;
+        Files.createDirectories(directory);
+        List<Path> existing = segmentFiles(directory);
+        segmentCount = existing.size();
+        if (existing.isEmpty()) {
+            roll();
+        } else {
+            recover(existing.get(existing.size() - 1));
+        }
+        publish();
+    }
+
+    public static Path segmentPath(Path directory, long firstSequence) {
+        return directory.resolve(String.format("segment-%020d.log", firstSequence));
+    }
+
+    public static List<Path> segmentFiles(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> {
+                String name = path.getFileName().toString();
+                return name.startsWith("segment-") && name.endsWith(".log");
+            }).sorted().toList();
+        }
+    }
+
+    public Appended append(String payload) throws IOException {
+        Pending pending = new Pending(payload);
+        lock.lock();
+        try {
+            if (closed) {
+                throw new IllegalStateException("audit log closed");
+            }
+            queue.add(pending);
+            while (!pending.done) {
+                if (flushing) {
+                    committed.awaitUninterruptibly();
+                    continue;
+                }
+                if (broken != null) {
+                    failAll(queue, broken);
+                    break;
+                }
+                flushing = true;
+                List<Pending> group = new ArrayList<>(Math.min(queue.size(), maxBatch));
+                while (!queue.isEmpty() && group.size() < maxBatch) {
+                    group.add(queue.poll());
+                }
+                lock.unlock();
+                IOException failure = null;
+                try {
+                    commit(group);
+                } catch (IOException e) {
+                    failure = e;
+                } finally {
+                    lock.lock();
+                    flushing = false;
+                    batches += 1;
+                    if (failure != null) {
+                        // Sequences and hashes were already assigned past what reached the disk,
+                        // so nothing queued may chain off them: the log is unusable from here.
+                        closed = true;
+                        broken = failure;
+                        failAll(queue, failure);
+                    } else {
+                        publish();
+                    }
+                    for (Pending member : group) {
+                        member.failure = failure;
+                        member.done = true;
+                    }
+                    committed.signalAll();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (pending.failure != null) {
+            throw new IOException("audit group commit failed", pending.failure);
+        }
+        return new Appended(pending.sequence, pending.hash);
+    }
+
+    public long lastSequence() {
+        lock.lock();
+        try {
+            return lastSequence;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long lastHash() {
+        lock.lock();
+        try {
+            return lastHash;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long batches() {
+        lock.lock();
+        try {
+            return batches;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int segments() {
+        lock.lock();
+        try {
+            return segments;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            closed = true;
+            while (flushing || !queue.isEmpty()) {
+                committed.awaitUninterruptibly();
+            }
+            if (broken == null) {
+                segment.force(true);
+            }
+            segment.close();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Called with the lock held, once the leader's working copies are durable.
+    private void publish() {
+        lastSequence = chainSequence;
+        lastHash = chainHash;
+        segments = segmentCount;
+    }
+
+    private static void failAll(ArrayDeque<Pending> queue, IOException failure) {
+        Pending pending;
+        while ((pending = queue.poll()) != null) {
+            pending.failure = failure;
+            pending.done = true;
+        }
+    }
+
+    private void commit(List<Pending> group) throws IOException {
+        for (Pending pending : group) {
+            int bound = RECORD_HEADER_BYTES + pending.payload.length() * 3;
+            long projected = segmentPosition + batch.position() + bound;
+            if (projected > segmentBytes && chainSequence >= firstSequenceOfSegment) {
+                drain();
+                roll();
+            }
+            if (bound > batch.remaining()) {
+                drain();
+            }
+            if (bound > batch.capacity()) {
+                ByteBuffer oversized = ByteBuffer.allocate(bound);
+                encode(oversized, pending);
+                oversized.flip();
+                while (oversized.hasRemaining()) {
+                    segmentPosition += segment.write(oversized, segmentPosition);
+                }
+            } else {
+                encode(batch, pending);
+            }
+        }
+        drain();
+        segment.force(false);
+    }
+
+    private void encode(ByteBuffer target, Pending pending) {
+        int start = target.position();
+        target.position(start + RECORD_HEADER_BYTES);
+        encoder.reset();
+        encoder.encode(CharBuffer.wrap(pending.payload), target, true);
+        encoder.flush(target);
+        int length = target.position() - start - RECORD_HEADER_BYTES;
+        long sequence = chainSequence + 1;
+        long hash = AuditTrail.appendHash(chainHash, target, start + RECORD_HEADER_BYTES, length);
+        target.putLong(start, sequence).putLong(start + Long.BYTES, hash).putInt(start + 2 * Long.BYTES, length);
+        chainSequence = sequence;
+        chainHash = hash;
+        pending.sequence = sequence;
+        pending.hash = hash;
+    }
+
+    private void drain() throws IOException {
+        batch.flip();
+        while (batch.hasRemaining()) {
+            segmentPosition += segment.write(batch, segmentPosition);
+        }
+        batch.clear();
+    }
+
+    private void roll() throws IOException {
+        if (segment != null) {
+            seal();
+        }
+        firstSequenceOfSegment = chainSequence + 1;
+        segmentStartHash = chainHash;
+        // The header is written to a temp file that is renamed into place, so a crash can never
+        // leave a segment file without a complete header.
+        Path path = segmentPath(directory, firstSequenceOfSegment);
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        ByteBuffer header = ByteBuffer.allocate(SEGMENT_HEADER_BYTES)
+                .putLong(SEGMENT_MAGIC)
+                .putLong(firstSequenceOfSegment)
+                .putLong(chainHash)
+                .flip();
+        try (FileChannel fresh = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (header.hasRemaining()) {
+                fresh.write(header);
+            }
+            fresh.force(true);
+        }
+        if (Files.exists(path)) {
+            Files.delete(temp);
+            throw new IOException("segment already exists: " + path);
+        }
+        Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE);
+        segment = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        segmentPosition = SEGMENT_HEADER_BYTES;
+        segmentCount += 1;
+    }
+
+    private void seal() throws IOException {
+        ByteBuffer footer = ByteBuffer.allocate(FOOTER_BYTES)
+                .putLong(FOOTER_TAG)
+                .putLong(0L)
+                .putInt(FOOTER_BODY_BYTES)
+                .putLong(segmentStartHash)
+                .putLong(firstSequenceOfSegment)
+                .putLong(chainSequence)
+                .putLong(chainHash)
+                .putLong(chainSequence - firstSequenceOfSegment + 1)
+                .putLong(FOOTER_MAGIC)
+                .flip();
+        footer.putLong(Long.BYTES, footerChecksum(footer, 0));
+        while (footer.hasRemaining()) {
+            segmentPosition += segment.write(footer, segmentPosition);
+        }
+        segment.force(false);
+        segment.close();
+    }
+
+    // Reopening continues the chain from the last complete record; a torn tail is cut off.
+    private void recover(Path last) throws IOException {
+        segment = FileChannel.open(last, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        ByteBuffer header = ByteBuffer.allocate(SEGMENT_HEADER_BYTES);
+        segment.read(header, 0);
+        if (header.getLong(0) != SEGMENT_MAGIC) {
+            throw new IOException("not an audit segment: " + last);
+        }
+        firstSequenceOfSegment = header.getLong(Long.BYTES);
+        segmentStartHash = header.getLong(2 * Long.BYTES);
+        chainSequence = firstSequenceOfSegment - 1;
+        chainHash = segmentStartHash;
+        long size = segment.size();
+        long at = SEGMENT_HEADER_BYTES;
+        ByteBuffer record = ByteBuffer.allocate(FOOTER_BYTES);
+        while (at + RECORD_HEADER_BYTES <= size) {
+            record.clear();
+            segment.read(record, at);
+            if (record.getLong(0) == FOOTER_TAG) {
+                if (at + FOOTER_BYTES == size && validFooter(record, 0)) {
+                    chainSequence = record.getLong(RECORD_HEADER_BYTES + 2 * Long.BYTES);
+                    chainHash = record.getLong(RECORD_HEADER_BYTES + 3 * Long.BYTES);
+                    segment.close();
+                    segment = null;
+                    roll();
+                    return;
+                }
+                break;
+            }
+            int length = record.getInt(2 * Long.BYTES);
+            if (length < 0 || at + RECORD_HEADER_BYTES + length > size) {
+                break;
+            }
+            chainSequence = record.getLong(0);
+            chainHash = record.getLong(Long.BYTES);
+            at += RECORD_HEADER_BYTES + length;
+        }
+        segment.truncate(at);
+        segmentPosition = at;
+    }
+
+    // A footer frame starting at offset: tagged, of the fixed length, with a matching checksum.
+    static boolean validFooter(ByteBuffer bytes, int offset) {
+        return bytes.getLong(offset) == FOOTER_TAG
+                && bytes.getInt(offset + 2 * Long.BYTES) == FOOTER_BODY_BYTES
+                && bytes.getLong(offset + RECORD_HEADER_BYTES + FOOTER_BODY_BYTES - Long.BYTES) == FOOTER_MAGIC
+                && bytes.getLong(offset + Long.BYTES) == footerChecksum(bytes, offset);
+    }
+
+    private static long footerChecksum(ByteBuffer bytes, int offset) {
+        long checksum = FOOTER_MAGIC;
+        for (int word = 0; word < FOOTER_BODY_BYTES / Long.BYTES; word++) {
+            checksum = IdempotencyIndex.mix(checksum ^ bytes.getLong(offset + RECORD_HEADER_BYTES + word * Long.BYTES));
+        }
+        return checksum;
+    }
+
+    private static final class Pending {
+        final String payload;
+        long sequence;
+        long hash;
+        boolean done;
+        IOException failure;
+
+        Pending(String payload) {
+            this.payload = payload;
+        }
+    }
+}
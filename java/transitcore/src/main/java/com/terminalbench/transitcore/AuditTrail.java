@@ -1,5 +1,6 @@
 package com.terminalbench.transitcore;
 
+import java.nio.ByteBuffer;
 import java.util.List;
 
 public final class AuditTrail {
@@ -7,12 +8,24 @@ public final class AuditTrail {
         return (tenant + ":" + traceId + ":" + eventType).trim();
     }
 
+    static final long HASH_MULTIPLIER = 37;
+    static final long HASH_MODULUS = 1_000_000_007L;
+
     public long appendHash(long previous, String payload) {
         long sum = 0;
-        for (char c : payload.toCharArray()) {
-            sum += c;
+        for (int i = 0; i < payload.length(); i++) {
+            sum += payload.charAt(i);
+        }
+        return (previous * HASH_MULTIPLIER + sum) % HASH_MODULUS;
+    }
+
+    // Same chain step over already-encoded bytes; identical to appendHash for ASCII payloads.
+    static long appendHash(long previous, ByteBuffer encoded, int offset, int length) {
+        long sum = 0;
+        for (int i = offset, end = offset + length; i < end; i++) {
+            sum += encoded.get(i) & 0xFF;
         }
-        return (previous * 37 + sum) % 1_000_000_007L;
+        return (previous * HASH_MULTIPLIER + sum) % HASH_MODULUS;
     }
 
     public boolean ordered(List<Long> sequenceNumbers) {
@@ -0,0 +1,279 @@
+package com.terminalbench.transitcore;
+
+import java.util.Arrays;
+
+/**
+ * Active shipments indexed by the second their {@link SlaModel} severity next escalates, on a
+ * three-level hierarchical timing wheel.
+ *
+ * <p>A shipment's severity is {@code severityCode(max(now, eta), sla)}: its predicted arrival
+ * while that is still ahead, and the current time once it has passed undelivered. Its next
+ * escalation is the earliest later second at which that code rises, found by probing the
+ * severity thresholds with the shared kernel. Level {@code l} has 256 slots of {@code 256^l}
+ * seconds covering the current {@code 256^(l+1)}-second block, so the wheel spans about 194 days;
+ * anything further out waits on an overflow list that is redistributed when the next top-level
+ * block begins. Entries are intrusive doubly-linked list nodes addressed by integer handles, so
+ * track, ETA update and cancel are O(1), and {@link #advance} touches one slot per elapsed second
+ * plus O(1) per escalation.
+ *
+ * <p>{@link #upcoming} costs O(k + s) for k results and s slots inside the horizon, plus the
+ * entries of at most one partially covered slot per coarse level, which are filtered by due
+ * time. Coarse slots and the overflow keep a lower bound on their earliest due time and are
+ * skipped when it lies past the horizon, so a short query next to a block boundary does not walk
+ * far-future entries. Each escalation calls the listener with the old and new severity;
+ * improvements in ETA lower the severity silently. Not thread-safe.
+ */
+public final class BreachIndex {
+    @FunctionalInterface
+    public interface Listener {
+        void escalated(long shipmentId, byte fromCode, byte toCode, long atSec);
+    }
+
+    @FunctionalInterface
+    public interface Upcoming {
+        void accept(long shipmentId, byte currentCode, long escalatesAtSec);
+    }
+
+    private static final int SLOT_BITS = 8;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = 3;
+    private static final int OVERFLOW = LEVELS * SLOTS;
+    private static final int UNSCHEDULED = -1;
+    private static final int FREE = -2;
+    private static final long[] THRESHOLDS = {0, 300, 900};
+
+    private final Listener listener;
+    private final int[] heads = new int[OVERFLOW + 1];
+    private final long[] earliest = new long[OVERFLOW + 1];
+    private long now;
+    private long[] ids = new long[64];
+    private long[] etas = new long[64];
+    private long[] slas = new long[64];
+    private long[] due = new long[64];
+    private byte[] codes = new byte[64];
+    private int[] buckets = new int[64];
+    private int[] next = new int[64];
+    private int[] prev = new int[64];
+    private int allocated;
+    private int freeList = -1;
+    private int live;
+    private int scheduled;
+
+    public BreachIndex(long nowSec, Listener listener) {
+        this.now = nowSec;
+        this.listener = listener;
+        Arrays.fill(heads, -1);
+        Arrays.fill(earliest, Long.MAX_VALUE);
+    }
+
+    public long now() {
+        return now;
+    }
+
+    public int size() {
+        return live;
+    }
+
+    public int track(long shipmentId, long etaSec, long slaSec) {
+        int handle = allocate();
+        ids[handle] = shipmentId;
+        etas[handle] = etaSec;
+        slas[handle] = slaSec;
+        codes[handle] = SlaModel.SEVERITY_NONE;
+        buckets[handle] = UNSCHEDULED;
+        live += 1;
+        refresh(handle);
+        return handle;
+    }
+
+    public void updateEta(int handle, long etaSec) {
+        checkLive(handle);
+        unlink(handle);
+        etas[handle] = etaSec;
+        byte current = SlaModel.severityCode(Math.max(now, etaSec), slas[handle]);
+        if (current < codes[handle]) {
+            codes[handle] = current;
+        }
+        refresh(handle);
+    }
+
+    public void cancel(int handle) {
+        checkLive(handle);
+        unlink(handle);
+        buckets[handle] = FREE;
+        next[handle] = freeList;
+        freeList = handle;
+        live -= 1;
+    }
+
+    public byte severity(int handle) {
+        checkLive(handle);
+        return codes[handle];
+    }
+
+    public void advance(long nowSec) {
+        while (now < nowSec) {
+            if (scheduled == 0) {
+                now = nowSec;
+                return;
+            }
+            now += 1;
+            if ((now & ((1L << (LEVELS * SLOT_BITS)) - 1)) == 0) {
+                redistribute(OVERFLOW);
+            }
+            for (int level = LEVELS - 1; level > 0; level--) {
+                if ((now & ((1L << (level * SLOT_BITS)) - 1)) == 0) {
+                    redistribute(level * SLOTS + (int) ((now >>> (level * SLOT_BITS)) & SLOT_MASK));
+                }
+            }
+            int slot = (int) (now & SLOT_MASK);
+            int handle = heads[slot];
+            while (handle >= 0) {
+                int following = next[handle];
+                unlink(handle);
+                refresh(handle);
+                handle = following;
+            }
+        }
+    }
+
+    // Visits every shipment whose next escalation falls in (now, now + horizonSec].
+    public int upcoming(long horizonSec, Upcoming visitor) {
+        long horizon = Math.max(0, horizonSec);
+        long end = horizon > Long.MAX_VALUE - now ? Long.MAX_VALUE : now + horizon;
+        int visited = 0;
+        for (long t = now + 1; t <= Math.min(end, now | SLOT_MASK); t++) {
+            visited += visit((int) (t & SLOT_MASK), end, visitor);
+        }
+        for (int level = 1; level < LEVELS; level++) {
+            int shift = level * SLOT_BITS;
+            long levelEnd = Math.min(end, now | ((1L << (shift + SLOT_BITS)) - 1));
+            for (long block = (now >>> shift) + 1; block << shift <= levelEnd; block++) {
+                visited += visit(level * SLOTS + (int) (block & SLOT_MASK), end, visitor);
+            }
+        }
+        return visited + visit(OVERFLOW, end, visitor);
+    }
+
+    private int visit(int bucket, long end, Upcoming visitor) {
+        if (earliest[bucket] > end) {
+            return 0;
+        }
+        int visited = 0;
+        for (int handle = heads[bucket]; handle >= 0; handle = next[handle]) {
+            if (due[handle] <= end) {
+                visitor.accept(ids[handle], codes[handle], due[handle]);
+                visited += 1;
+            }
+        }
+        return visited;
+    }
+
+    // Brings the code up to date (notifying on a rise) and schedules the next rise, if any.
+    private void refresh(int handle) {
+        long eta = etas[handle];
+        long sla = slas[handle];
+        byte current = SlaModel.severityCode(Math.max(now, eta), sla);
+        if (current > codes[handle]) {
+            byte previous = codes[handle];
+            codes[handle] = current;
+            listener.escalated(ids[handle], previous, current, now);
+        }
+        long from = Math.max(now, eta);
+        long at = Long.MAX_VALUE;
+        for (long threshold : THRESHOLDS) {
+            for (long candidate = sla + threshold; candidate <= sla + threshold + 1; candidate++) {
+                if (candidate > from && candidate < at && SlaModel.severityCode(candidate, sla) > current) {
+                    at = candidate;
+                }
+            }
+        }
+        if (at != Long.MAX_VALUE) {
+            due[handle] = at;
+            link(handle, bucketFor(at));
+        }
+    }
+
+    private int bucketFor(long at) {
+        for (int level = 0; level < LEVELS; level++) {
+            int shift = level * SLOT_BITS;
+            if ((at >>> (shift + SLOT_BITS)) == (now >>> (shift + SLOT_BITS))) {
+                return level * SLOTS + (int) ((at >>> shift) & SLOT_MASK);
+            }
+        }
+        return OVERFLOW;
+    }
+
+    private void redistribute(int bucket) {
+        int handle = heads[bucket];
+        while (handle >= 0) {
+            int following = next[handle];
+            unlink(handle);
+            if (due[handle] <= now) {
+                refresh(handle);
+            } else {
+                link(handle, bucketFor(due[handle]));
+            }
+            handle = following;
+        }
+    }
+
+    private void link(int handle, int bucket) {
+        buckets[handle] = bucket;
+        prev[handle] = -1;
+        next[handle] = heads[bucket];
+        if (heads[bucket] >= 0) {
+            prev[heads[bucket]] = handle;
+        }
+        heads[bucket] = handle;
+        earliest[bucket] = Math.min(earliest[bucket], due[handle]);
+        scheduled += 1;
+    }
+
+    private void unlink(int handle) {
+        int bucket = buckets[handle];
+        if (bucket < 0) {
+            return;
+        }
+        if (prev[handle] >= 0) {
+            next[prev[handle]] = next[handle];
+        } else {
+            heads[bucket] = next[handle];
+            if (heads[bucket] < 0) {
+                earliest[bucket] = Long.MAX_VALUE;
+            }
+        }
+        if (next[handle] >= 0) {
+            prev[next[handle]] = prev[handle];
+        }
+        buckets[handle] = UNSCHEDULED;
+        scheduled -= 1;
+    }
+
+    private int allocate() {
+        if (freeList >= 0) {
+            int handle = freeList;
+            freeList = next[handle];
+            return handle;
+        }
+        if (allocated == ids.length) {
+            int capacity = allocated * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            etas = Arrays.copyOf(etas, capacity);
+            slas = Arrays.copyOf(slas, capacity);
+            due = Arrays.copyOf(due, capacity);
+            codes = Arrays.copyOf(codes, capacity);
+            buckets = Arrays.copyOf(buckets, capacity);
+            next = Arrays.copyOf(next, capacity);
+            prev = Arrays.copyOf(prev, capacity);
+        }
+        return allocated++;
+    }
+
+    private void checkLive(int handle) {
+        if (handle < 0 || handle >= allocated || buckets[handle] == FREE) {
+            throw new IllegalArgumentException("unknown shipment handle " + handle);
+        }
+    }
+}
@@ -2,6 +2,10 @@ package com.terminalbench.transitcore;
 
 public final class CapacityBalancer {
     public int rebalance(int availableUnits, int queuedDemand, int reserveFloor) {
+        return admitted(availableUnits, queuedDemand, reserveFloor);
+    }
+
+    static int admitted(int availableUnits, int queuedDemand, int reserveFloor) {
         
         int safeAvailable = Math.max(0, availableUnits + reserveFloor);
         return Math.min(Math.max(queuedDemand, 0), safeAvailable);
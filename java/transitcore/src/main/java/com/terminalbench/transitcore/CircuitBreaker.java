@@ -0,0 +1,296 @@
+package com.terminalbench.transitcore;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Lock-free count-based circuit breaker, the stateful replacement for callers feeding
+ * {@link ResilienceReplay#circuitOpen} their own failure counts.
+ *
+ * <p>The sliding window is a ring of the last {@code windowSize} calls kept as two bitsets, one
+ * for failures and one for slow calls (latency at or above {@code slowCallNanos}), with a
+ * running count of each. A recorder claims the next ring position with one atomic increment and
+ * only CASes a bit word when that position's old outcome differs, so a fast success over a
+ * fast success costs an increment and two reads. Once {@code minimumCalls} are recorded, a
+ * failure or slow rate at or above its threshold opens the breaker. After {@code openNanos} the
+ * next caller moves it to half-open, where at most {@code probes} calls are admitted: all
+ * succeeding closes it with a fresh window, any failure reopens it, and a round that reaches
+ * no verdict within another {@code openNanos} is abandoned for a fresh one.
+ *
+ * <p>{@link #tryAcquire} hands out a permit that the caller passes back with the outcome. Probe
+ * permits name their half-open round, so only probes of the current round count toward
+ * closing; results of calls admitted while closed, or of an abandoned round, are dropped.
+ *
+ * <p>State, round number, admitted probes and successful probes share one {@code AtomicLong} so
+ * each transition is a single CAS. Every transition starts a new round and stamps its time once
+ * the CAS has won; a reader that finds the stamp still naming an older round treats the deadline
+ * as not yet reached.
+ */
+public final class CircuitBreaker {
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    /** Returned by {@link #tryAcquire} when the call must not proceed. */
+    public static final long REJECTED = -1;
+    /** Permit for calls admitted while closed; also what the one-argument recorders assume. */
+    public static final long CLOSED_PERMIT = 0;
+
+    private static final long COUNT_MASK = (1L << 20) - 1;
+    private static final long ROUND_MASK = (1L << 22) - 1;
+    private static final State[] STATES = State.values();
+
+    private record Stamp(long round, long atNanos) { }
+
+    private final int windowSize;
+    private final int mask;
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final double slowRateThreshold;
+    private final long slowCallNanos;
+    private final long openNanos;
+    private final int probes;
+    private final LongSupplier nanoClock;
+
+    private final AtomicLong cursor = new AtomicLong();
+    private final AtomicLongArray failureBits;
+    private final AtomicLongArray slowBits;
+    private final AtomicInteger failures = new AtomicInteger();
+    private final AtomicInteger slowCalls = new AtomicInteger();
+    // [state:2][round:22][admitted probes:20][successful probes:20]
+    private final AtomicLong control = new AtomicLong(pack(State.CLOSED, 0, 0, 0));
+    private volatile Stamp stamp = new Stamp(0, 0);
+
+    public CircuitBreaker(int windowSize, int minimumCalls, double failureRateThreshold, double slowRateThreshold,
+                          long slowCallNanos, long openNanos, int probes) {
+        this(windowSize, minimumCalls, failureRateThreshold, slowRateThreshold, slowCallNanos, openNanos, probes,
+                System::nanoTime);
+    }
+
+    public CircuitBreaker(int windowSize, int minimumCalls, double failureRateThreshold, double slowRateThreshold,
+                          long slowCallNanos, long openNanos, int probes, LongSupplier nanoClock) {
+        if (windowSize < 64 || Integer.bitCount(windowSize) != 1) {
+            throw new IllegalArgumentException("windowSize must be a power of two >= 64");
+        }
+        if (minimumCalls <= 0 || minimumCalls > windowSize) {
+            throw new IllegalArgumentException("minimumCalls must be in [1, windowSize]");
+        }
+        if (failureRateThreshold <= 0 || failureRateThreshold > 1 || slowRateThreshold <= 0 || slowRateThreshold > 1) {
+            throw new IllegalArgumentException("rate thresholds must be in (0, 1]");
+        }
+        if (slowCallNanos <= 0 || openNanos <= 0 || probes <= 0) {
+            throw new IllegalArgumentException("slowCallNanos, openNanos and probes must be positive");
+        }
+        if (probes > COUNT_MASK) {
+            throw new IllegalArgumentException("probes must be at most " + COUNT_MASK);
+        }
+        this.windowSize = windowSize;
+        this.mask = windowSize - 1;
+        this.minimumCalls = minimumCalls;
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowRateThreshold = slowRateThreshold;
+        this.slowCallNanos = slowCallNanos;
+        this.openNanos = openNanos;
+        this.probes = probes;
+        this.nanoClock = nanoClock;
+        this.failureBits = new AtomicLongArray(windowSize / 64);
+        this.slowBits = new AtomicLongArray(windowSize / 64);
+    }
+
+    public State state() {
+        return stateOf(control.get());
+    }
+
+    public double failureRate() {
+        return (double) failures.get() / recordedCalls();
+    }
+
+    public double slowRate() {
+        return (double) slowCalls.get() / recordedCalls();
+    }
+
+    /**
+     * Returns {@link #REJECTED}, {@link #CLOSED_PERMIT}, or a probe permit; pass anything but
+     * {@code REJECTED} back to {@link #onSuccess(long, long)} or {@link #onFailure(long, long)}.
+     */
+    public long tryAcquire() {
+        while (true) {
+            long current = control.get();
+            switch (stateOf(current)) {
+                case CLOSED -> {
+                    return CLOSED_PERMIT;
+                }
+                case OPEN -> {
+                    if (!deadlinePassed(current)) {
+                        return REJECTED;
+                    }
+                    long next = pack(State.HALF_OPEN, nextRound(current), 1, 0);
+                    if (transition(current, next)) {
+                        return permitOf(next);
+                    }
+                }
+                case HALF_OPEN -> {
+                    long admitted = (current >>> 20) & COUNT_MASK;
+                    if (admitted < probes) {
+                        if (control.compareAndSet(current, current + (1L << 20))) {
+                            return permitOf(current);
+                        }
+                    } else if (!deadlinePassed(current)) {
+                        return REJECTED;
+                    } else {
+                        long next = pack(State.HALF_OPEN, nextRound(current), 1, 0);
+                        if (transition(current, next)) {
+                            return permitOf(next);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    public void onSuccess(long latencyNanos) {
+        onSuccess(CLOSED_PERMIT, latencyNanos);
+    }
+
+    public void onFailure(long latencyNanos) {
+        onFailure(CLOSED_PERMIT, latencyNanos);
+    }
+
+    public void onSuccess(long permit, long latencyNanos) {
+        record(permit, false, latencyNanos);
+    }
+
+    public void onFailure(long permit, long latencyNanos) {
+        record(permit, true, latencyNanos);
+    }
+
+    private void record(long permit, boolean failed, long latencyNanos) {
+        if (permit == REJECTED) {
+            throw new IllegalArgumentException("a rejected call has no outcome to record");
+        }
+        boolean slow = latencyNanos >= slowCallNanos;
+        if (permit != CLOSED_PERMIT) {
+            if (failed || slow) {
+                probeFailed(permit);
+            } else {
+                probeSucceeded(permit);
+            }
+            return;
+        }
+        if (stateOf(control.get()) != State.CLOSED) {
+            return;
+        }
+        int slot = (int) (cursor.getAndIncrement() & mask);
+        int word = slot >>> 6;
+        long bit = 1L << slot;
+        boolean failuresRose = update(failureBits, failures, word, bit, failed);
+        boolean slowRose = update(slowBits, slowCalls, word, bit, slow);
+        if ((failuresRose || slowRose) && cursor.get() >= minimumCalls) {
+            int calls = recordedCalls();
+            if (failures.get() >= failureRateThreshold * calls || slowCalls.get() >= slowRateThreshold * calls) {
+                long current = control.get();
+                if (stateOf(current) == State.CLOSED) {
+                    transition(current, pack(State.OPEN, nextRound(current), 0, 0));
+                }
+            }
+        }
+    }
+
+    private void probeFailed(long permit) {
+        while (true) {
+            long current = control.get();
+            if (stateOf(current) != State.HALF_OPEN || permitOf(current) != permit) {
+                return;
+            }
+            if (transition(current, pack(State.OPEN, nextRound(current), 0, 0))) {
+                return;
+            }
+        }
+    }
+
+    private void probeSucceeded(long permit) {
+        while (true) {
+            long current = control.get();
+            if (stateOf(current) != State.HALF_OPEN || permitOf(current) != permit) {
+                return;
+            }
+            long succeeded = current & COUNT_MASK;
+            if (succeeded >= probes) {
+                return;
+            }
+            if (!control.compareAndSet(current, current + 1)) {
+                continue;
+            }
+            if (succeeded + 1 == probes) {
+                // Still half-open, so closed-state recorders stay out while the window is cleared;
+                // a probe failing meanwhile reopens the breaker and this CAS then loses.
+                resetWindow();
+                long closing = current + 1;
+                transition(closing, pack(State.CLOSED, nextRound(closing), 0, 0));
+            }
+            return;
+        }
+    }
+
+    private boolean transition(long expected, long next) {
+        if (!control.compareAndSet(expected, next)) {
+            return false;
+        }
+        stamp = new Stamp(roundOf(next), nanoClock.getAsLong());
+        return true;
+    }
+
+    private boolean deadlinePassed(long current) {
+        Stamp last = stamp;
+        return last.round() == roundOf(current) && nanoClock.getAsLong() - last.atNanos() >= openNanos;
+    }
+
+    // Counts drop by the bits actually cleared, so a straggling recorder cannot drive them negative.
+    private void resetWindow() {
+        for (int i = 0; i < failureBits.length(); i++) {
+            failures.addAndGet(-Long.bitCount(failureBits.getAndSet(i, 0)));
+            slowCalls.addAndGet(-Long.bitCount(slowBits.getAndSet(i, 0)));
+        }
+        cursor.set(0);
+    }
+
+    private int recordedCalls() {
+        return (int) Math.max(1, Math.min(cursor.get(), windowSize));
+    }
+
+    // Returns true when the slot flipped from clear to set.
+    private static boolean update(AtomicLongArray bits, AtomicInteger count, int word, long bit, boolean value) {
+        if (((bits.get(word) & bit) != 0) == value) {
+            return false;
+        }
+        if (value) {
+            if ((bits.getAndAccumulate(word, bit, (a, b) -> a | b) & bit) == 0) {
+                count.incrementAndGet();
+                return true;
+            }
+        } else if ((bits.getAndAccumulate(word, ~bit, (a, b) -> a & b) & bit) != 0) {
+            count.decrementAndGet();
+        }
+        return false;
+    }
+
+    private static long pack(State state, long round, long admitted, long succeeded) {
+        return ((long) state.ordinal() << 62) | (round << 40) | (admitted << 20) | succeeded;
+    }
+
+    private static State stateOf(long control) {
+        return STATES[(int) (control >>> 62)];
+    }
+
+    private static long roundOf(long control) {
+        return (control >>> 40) & ROUND_MASK;
+    }
+
+    private static long nextRound(long control) {
+        return (roundOf(control) + 1) & ROUND_MASK;
+    }
+
+    private static long permitOf(long control) {
+        return roundOf(control) + 1;
+    }
+}
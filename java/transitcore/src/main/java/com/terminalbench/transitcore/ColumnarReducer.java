@@ -0,0 +1,236 @@
+package com.terminalbench.transitcore;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+public final class ColumnarReducer {
+    public record ColumnStats(long count, double mean, double variance, double min, double max) {
+        public double sum() {
+            return mean * count;
+        }
+    }
+
+    static final int PARALLEL_THRESHOLD = 1 << 16;
+
+    private enum Column { DOUBLES, LONGS, RATIOS }
+
+    private final ForkJoinPool pool;
+    private final int parallelThreshold;
+
+    public ColumnarReducer() {
+        this(ForkJoinPool.commonPool(), PARALLEL_THRESHOLD);
+    }
+
+    public ColumnarReducer(ForkJoinPool pool, int parallelThreshold) {
+        if (parallelThreshold < 64) {
+            throw new IllegalArgumentException("parallelThreshold must be at least 64");
+        }
+        this.pool = pool;
+        this.parallelThreshold = parallelThreshold;
+    }
+
+    public ColumnStats reduce(double[] values) {
+        return reduce(Column.DOUBLES, values, null, null, values.length);
+    }
+
+    public ColumnStats reduce(long[] values) {
+        return reduce(Column.LONGS, null, values, null, values.length);
+    }
+
+    public ColumnStats reduceBoundedRatios(double[] numerators, double[] denominators) {
+        if (numerators.length != denominators.length) {
+            throw new IllegalArgumentException("column length mismatch");
+        }
+        return reduce(Column.RATIOS, numerators, null, denominators, numerators.length);
+    }
+
+    private ColumnStats reduce(Column column, double[] doubles, long[] longs, double[] denominators, int length) {
+        if (length == 0) {
+            throw new IllegalArgumentException("values empty");
+        }
+        Partial partial = length <= parallelThreshold
+                ? kernel(column, doubles, longs, denominators, 0, length)
+                : pool.invoke(new ReduceTask(column, doubles, longs, denominators, 0, length, parallelThreshold));
+        return new ColumnStats(partial.count, partial.mean, partial.m2 / partial.count, partial.min, partial.max);
+    }
+
+    private static Partial kernel(Column column, double[] doubles, long[] longs, double[] denominators, int from, int to) {
+        return switch (column) {
+            case DOUBLES -> doubleKernel(doubles, from, to);
+            case LONGS -> longKernel(longs, from, to);
+            case RATIOS -> ratioKernel(doubles, denominators, from, to);
+        };
+    }
+
+    // Four independent lanes keep the FP add/min/max chains from serialising on one register;
+    // sums are taken relative to the first element so the single-pass variance stays stable.
+    private static Partial doubleKernel(double[] values, int from, int to) {
+        double shift = values[from];
+        double s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+        double q0 = 0, q1 = 0, q2 = 0, q3 = 0;
+        double lo0 = shift, lo1 = shift, lo2 = shift, lo3 = shift;
+        double hi0 = shift, hi1 = shift, hi2 = shift, hi3 = shift;
+        int i = from;
+        for (int bound = to - 3; i < bound; i += 4) {
+            double a = values[i];
+            double b = values[i + 1];
+            double c = values[i + 2];
+            double d = values[i + 3];
+            double da = a - shift;
+            double db = b - shift;
+            double dc = c - shift;
+            double dd = d - shift;
+            s0 += da;
+            s1 += db;
+            s2 += dc;
+            s3 += dd;
+            q0 += da * da;
+            q1 += db * db;
+            q2 += dc * dc;
+            q3 += dd * dd;
+            lo0 = Math.min(lo0, a);
+            lo1 = Math.min(lo1, b);
+            lo2 = Math.min(lo2, c);
+            lo3 = Math.min(lo3, d);
+            hi0 = Math.max(hi0, a);
+            hi1 = Math.max(hi1, b);
+            hi2 = Math.max(hi2, c);
+            hi3 = Math.max(hi3, d);
+        }
+        for (; i < to; i++) {
+            double a = values[i];
+            double da = a - shift;
+            s0 += da;
+            q0 += da * da;
+            lo0 = Math.min(lo0, a);
+            hi0 = Math.max(hi0, a);
+        }
+        return Partial.of(to - from, shift, s0 + s1 + s2 + s3, q0 + q1 + q2 + q3,
+                Math.min(Math.min(lo0, lo1), Math.min(lo2, lo3)),
+                Math.max(Math.max(hi0, hi1), Math.max(hi2, hi3)));
+    }
+
+    private static Partial longKernel(long[] values, int from, int to) {
+        double shift = values[from];
+        double s0 = 0, s1 = 0, q0 = 0, q1 = 0;
+        long lo = values[from];
+        long hi = values[from];
+        int i = from;
+        for (int bound = to - 1; i < bound; i += 2) {
+            long a = values[i];
+            long b = values[i + 1];
+            double da = a - shift;
+            double db = b - shift;
+            s0 += da;
+            s1 += db;
+            q0 += da * da;
+            q1 += db * db;
+            lo = Math.min(lo, Math.min(a, b));
+            hi = Math.max(hi, Math.max(a, b));
+        }
+        if (i < to) {
+            long a = values[i];
+            double da = a - shift;
+            s0 += da;
+            q0 += da * da;
+            lo = Math.min(lo, a);
+            hi = Math.max(hi, a);
+        }
+        return Partial.of(to - from, shift, s0 + s1, q0 + q1, lo, hi);
+    }
+
+    private static Partial ratioKernel(double[] numerators, double[] denominators, int from, int to) {
+        double shift = StatisticsReducer.bounded(numerators[from], denominators[from]);
+        double s0 = 0, s1 = 0, q0 = 0, q1 = 0;
+        double lo = shift;
+        double hi = shift;
+        int i = from;
+        for (int bound = to - 1; i < bound; i += 2) {
+            double a = StatisticsReducer.bounded(numerators[i], denominators[i]);
+            double b = StatisticsReducer.bounded(numerators[i + 1], denominators[i + 1]);
+            double da = a - shift;
+            double db = b - shift;
+            s0 += da;
+            s1 += db;
+            q0 += da * da;
+            q1 += db * db;
+            lo = Math.min(lo, Math.min(a, b));
+            hi = Math.max(hi, Math.max(a, b));
+        }
+        if (i < to) {
+            double a = StatisticsReducer.bounded(numerators[i], denominators[i]);
+            double da = a - shift;
+            s0 += da;
+            q0 += da * da;
+            lo = Math.min(lo, a);
+            hi = Math.max(hi, a);
+        }
+        return Partial.of(to - from, shift, s0 + s1, q0 + q1, lo, hi);
+    }
+
+    private static final class Partial {
+        final long count;
+        final double mean;
+        final double m2;
+        final double min;
+        final double max;
+
+        private Partial(long count, double mean, double m2, double min, double max) {
+            this.count = count;
+            this.mean = mean;
+            this.m2 = m2;
+            this.min = min;
+            this.max = max;
+        }
+
+        static Partial of(long count, double shift, double shiftedSum, double shiftedSquares, double min, double max) {
+            double m2 = Math.max(0.0, shiftedSquares - shiftedSum * shiftedSum / count);
+            return new Partial(count, shift + shiftedSum / count, m2, min, max);
+        }
+
+        Partial combine(Partial other) {
+            long count = this.count + other.count;
+            double delta = other.mean - mean;
+            return new Partial(
+                    count,
+                    mean + delta * other.count / count,
+                    m2 + other.m2 + delta * delta * ((double) this.count * other.count / count),
+                    Math.min(min, other.min),
+                    Math.max(max, other.max));
+        }
+    }
+
+    @SuppressWarnings("serial")
+    private static final class ReduceTask extends RecursiveTask<Partial> {
+        private final Column column;
+        private final double[] doubles;
+        private final long[] longs;
+        private final double[] denominators;
+        private final int from;
+        private final int to;
+        private final int threshold;
+
+        ReduceTask(Column column, double[] doubles, long[] longs, double[] denominators, int from, int to, int threshold) {
+            this.column = column;
+            this.doubles = doubles;
+            this.longs = longs;
+            this.denominators = denominators;
+            this.from = from;
+            this.to = to;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected Partial compute() {
+            if (to - from <= threshold) {
+                return kernel(column, doubles, longs, denominators, from, to);
+            }
+            int mid = (from + to) >>> 1;
+            ReduceTask left = new ReduceTask(column, doubles, longs, denominators, from, mid, threshold);
+            ReduceTask right = new ReduceTask(column, doubles, longs, denominators, mid, to, threshold);
+            left.fork();
+            Partial rightResult = right.compute();
+            return left.join().combine(rightResult);
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.terminalbench.transitcore;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * {@link WorkflowOrchestrator}'s state machine with states and events interned to small ints.
+ *
+ * <p>State ids follow the lexical order of the state names and event ids follow
+ * {@link WorkflowOrchestrator#EVENTS}, with {@link #unknownEvent()} standing for every other event
+ * name. Row {@code from} of the transition matrix is one {@code long} whose bit {@code to} is set
+ * when the move is allowed, and each event's target is taken from
+ * {@link WorkflowOrchestrator#nextStateFor} at compile time, so every answer matches the string
+ * methods. The bulk methods run over parallel int arrays of instance states without allocating.
+ * Immutable and thread-safe.
+ */
+public final class CompiledWorkflow {
+    public static final int NO_STATE = -1;
+
+    private final String[] states;
+    private final Map<String, Integer> stateIds;
+    private final long[] rows;
+    private final Map<String, Integer> eventIds;
+    private final int[] eventTargets;
+    private final int unknownEvent;
+
+    private CompiledWorkflow(Map<String, List<String>> transitions, List<String> events, WorkflowOrchestrator orchestrator) {
+        TreeSet<String> names = new TreeSet<>(transitions.keySet());
+        transitions.values().forEach(names::addAll);
+        for (String event : events) {
+            names.add(orchestrator.nextStateFor(event));
+        }
+        names.add(orchestrator.nextStateFor(""));
+        if (names.size() > Long.SIZE) {
+            throw new IllegalArgumentException("compiled workflows support at most 64 states");
+        }
+        states = names.toArray(new String[0]);
+        stateIds = new HashMap<>(states.length * 2);
+        for (int i = 0; i < states.length; i++) {
+            stateIds.put(states[i], i);
+        }
+        rows = new long[states.length];
+        transitions.forEach((from, targets) -> {
+            for (String to : targets) {
+                rows[stateIds.get(from)] |= 1L << stateIds.get(to);
+            }
+        });
+        eventIds = new HashMap<>(events.size() * 2);
+        eventTargets = new int[events.size() + 1];
+        for (int i = 0; i < events.size(); i++) {
+            eventIds.put(events.get(i), i);
+            eventTargets[i] = stateIds.get(orchestrator.nextStateFor(events.get(i)));
+        }
+        unknownEvent = events.size();
+        eventTargets[unknownEvent] = stateIds.get(orchestrator.nextStateFor(""));
+    }
+
+    public static CompiledWorkflow compile(WorkflowOrchestrator orchestrator) {
+        return new CompiledWorkflow(WorkflowOrchestrator.transitions(), WorkflowOrchestrator.EVENTS, orchestrator);
+    }
+
+    public int stateCount() {
+        return states.length;
+    }
+
+    public int eventCount() {
+        return eventTargets.length;
+    }
+
+    public String stateName(int state) {
+        return states[state];
+    }
+
+    public int stateId(String state) {
+        Integer id = stateIds.get(state);
+        return id == null ? NO_STATE : id;
+    }
+
+    public int eventId(String event) {
+        Integer id = eventIds.get(event);
+        return id == null ? unknownEvent : id;
+    }
+
+    public int unknownEvent() {
+        return unknownEvent;
+    }
+
+    public int target(int event) {
+        return eventTargets[event];
+    }
+
+    public boolean allowed(int from, int to) {
+        return from >= 0 && from < rows.length && to >= 0 && to < rows.length && (rows[from] >>> to & 1L) != 0;
+    }
+
+    // State after the event, or NO_STATE when the machine does not allow the move.
+    public int next(int from, int event) {
+        int to = eventTargets[event];
+        return allowed(from, to) ? to : NO_STATE;
+    }
+
+    // Sets bit i of allowedBits when from[i] -> to[i] is allowed; returns how many were.
+    public int validate(int[] from, int[] to, long[] allowedBits) {
+        if (from.length != to.length || allowedBits.length < (from.length + 63) >>> 6) {
+            throw new IllegalArgumentException("batch arrays must line up");
+        }
+        int count = 0;
+        for (int word = 0; word << 6 < from.length; word++) {
+            long bits = 0;
+            int end = Math.min(from.length, (word + 1) << 6);
+            for (int i = word << 6; i < end; i++) {
+                long bit = allowed(from[i], to[i]) ? 1L : 0L;
+                bits |= bit << (i & 63);
+            }
+            allowedBits[word] = bits;
+            count += Long.bitCount(bits);
+        }
+        return count;
+    }
+
+    // Applies events[i] to states[i] in place where allowed; returns how many moved.
+    public int fire(int[] states, int[] events) {
+        if (states.length != events.length) {
+            throw new IllegalArgumentException("batch arrays must line up");
+        }
+        int applied = 0;
+        for (int i = 0; i < states.length; i++) {
+            int to = eventTargets[events[i]];
+            if (allowed(states[i], to)) {
+                states[i] = to;
+                applied += 1;
+            }
+        }
+        return applied;
+    }
+
+    public int fire(int[] states, int event) {
+        int to = eventTargets[event];
+        int applied = 0;
+        for (int i = 0; i < states.length; i++) {
+            if (allowed(states[i], to)) {
+                states[i] = to;
+                applied += 1;
+            }
+        }
+        return applied;
+    }
+
+    public boolean transitionAllowed(String from, String to) {
+        return allowed(stateId(from), stateId(to));
+    }
+
+    public String nextStateFor(String event) {
+        return states[eventTargets[eventId(event)]];
+    }
+}
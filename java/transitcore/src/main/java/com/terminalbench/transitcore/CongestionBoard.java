@@ -0,0 +1,173 @@
+package com.terminalbench.transitcore;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Shared hub congestion board. Writers add deltas to a per-hub {@link DoubleAdder}, whose
+ * striped cells keep concurrent reporters off a single contended word. Readers never look at the
+ * cells: they query an immutable {@link Snapshot} sorted the way {@link RoutingHeuristics#selectHub}
+ * ranks hubs (least congested first, ties by hub name).
+ *
+ * <p>A snapshot older than {@code maxStalenessNanos} is rebuilt by the first reader that notices;
+ * concurrent readers keep using the previous snapshot until the rebuild is published, so a read
+ * is at most one rebuild past the bound. {@link #publishEvery} keeps snapshots fresh without
+ * any reader paying for the rebuild.
+ */
+public final class CongestionBoard {
+    public static final class Snapshot {
+        private final long publishedAtNanos;
+        private final String[] hubs;
+        private final double[] congestion;
+        private final Map<String, Integer> rank;
+
+        Snapshot(long publishedAtNanos, String[] hubs, double[] congestion) {
+            this.publishedAtNanos = publishedAtNanos;
+            this.hubs = hubs;
+            this.congestion = congestion;
+            this.rank = new HashMap<>(hubs.length * 2);
+            for (int i = 0; i < hubs.length; i++) {
+                rank.put(hubs[i], i);
+            }
+        }
+
+        public long publishedAtNanos() {
+            return publishedAtNanos;
+        }
+
+        public int size() {
+            return hubs.length;
+        }
+
+        public String leastCongested() {
+            return hubs.length == 0 ? "unassigned" : hubs[0];
+        }
+
+        public List<String> leastCongested(int k) {
+            return List.of(Arrays.copyOf(hubs, Math.min(Math.max(0, k), hubs.length)));
+        }
+
+        public List<String> mostCongested(int k) {
+            int count = Math.min(Math.max(0, k), hubs.length);
+            String[] top = new String[count];
+            for (int i = 0; i < count; i++) {
+                top[i] = hubs[hubs.length - 1 - i];
+            }
+            return List.of(top);
+        }
+
+        public double congestion(String hub) {
+            Integer at = rank.get(hub);
+            return at == null ? Double.NaN : congestion[at];
+        }
+    }
+
+    private final ConcurrentHashMap<String, DoubleAdder> cells = new ConcurrentHashMap<>();
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    private final long maxStalenessNanos;
+    private final LongSupplier nanoClock;
+    private volatile Snapshot current;
+
+    public CongestionBoard(long maxStalenessNanos) {
+        this(maxStalenessNanos, System::nanoTime);
+    }
+
+    public CongestionBoard(long maxStalenessNanos, LongSupplier nanoClock) {
+        if (maxStalenessNanos <= 0) {
+            throw new IllegalArgumentException("maxStalenessNanos must be positive");
+        }
+        this.maxStalenessNanos = maxStalenessNanos;
+        this.nanoClock = nanoClock;
+        this.current = new Snapshot(nanoClock.getAsLong(), new String[0], new double[0]);
+    }
+
+    public void report(String hub, double delta) {
+        DoubleAdder cell = cells.get(hub);
+        if (cell == null) {
+            cell = cells.computeIfAbsent(hub, ignored -> new DoubleAdder());
+        }
+        cell.add(delta);
+    }
+
+    public Snapshot snapshot() {
+        Snapshot snapshot = current;
+        if (nanoClock.getAsLong() - snapshot.publishedAtNanos() < maxStalenessNanos
+                || !rebuilding.compareAndSet(false, true)) {
+            return snapshot;
+        }
+        try {
+            return rebuild();
+        } finally {
+            rebuilding.set(false);
+        }
+    }
+
+    public String selectHub() {
+        return snapshot().leastCongested();
+    }
+
+    public List<String> leastCongested(int k) {
+        return snapshot().leastCongested(k);
+    }
+
+    public Snapshot publish() {
+        while (!rebuilding.compareAndSet(false, true)) {
+            Thread.onSpinWait();
+        }
+        try {
+            return rebuild();
+        } finally {
+            rebuilding.set(false);
+        }
+    }
+
+    public ScheduledFuture<?> publishEvery(ScheduledExecutorService executor) {
+        long period = Math.max(1, maxStalenessNanos / 2);
+        return executor.scheduleAtFixedRate(this::publish, period, period, TimeUnit.NANOSECONDS);
+    }
+
+    private Snapshot rebuild() {
+        long now = nanoClock.getAsLong();
+        int size = cells.size();
+        String[] hubs = new String[size];
+        double[] values = new double[size];
+        int count = 0;
+        for (Map.Entry<String, DoubleAdder> entry : cells.entrySet()) {
+            if (count == hubs.length) {
+                hubs = Arrays.copyOf(hubs, count * 2 + 1);
+                values = Arrays.copyOf(values, hubs.length);
+            }
+            hubs[count] = entry.getKey();
+            values[count] = entry.getValue().sum();
+            count += 1;
+        }
+        Integer[] order = new Integer[count];
+        for (int i = 0; i < count; i++) {
+            order[i] = i;
+        }
+        String[] names = hubs;
+        double[] sums = values;
+        Arrays.sort(order, (a, b) -> {
+            int byCongestion = Double.compare(sums[a], sums[b]);
+            return byCongestion != 0 ? byCongestion : names[a].compareTo(names[b]);
+        });
+        String[] sortedHubs = new String[count];
+        double[] sortedCongestion = new double[count];
+        for (int i = 0; i < count; i++) {
+            sortedHubs[i] = names[order[i]];
+            sortedCongestion[i] = sums[order[i]];
+        }
+        Snapshot snapshot = new Snapshot(now, sortedHubs, sortedCongestion);
+        current = snapshot;
+        return snapshot;
+    }
+}
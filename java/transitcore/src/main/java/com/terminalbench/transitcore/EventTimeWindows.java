@@ -0,0 +1,258 @@
+package com.terminalbench.transitcore;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Keyed event-time window aggregation (count, sum, min, max) over tumbling or sliding windows.
+ *
+ * <p>Window starts are {@link WatermarkWindow#bucketFor} buckets of the slide; a window of
+ * {@code sizeSec} starting at {@code s} covers {@code [s, s + sizeSec)}, so with a slide equal to
+ * the size the windows tumble. Advancing the watermark to or past a window's end fires every key
+ * in it. The window then stays open for {@code allowedLatenessSec}: a late event in that span
+ * updates its key and fires it again marked late. After that the window is evicted and later
+ * events for it are only counted as dropped. Each window keeps its per-key state in a primitive
+ * open-addressing map. Evicted windows are cleared and pooled for reuse, at most one more than the
+ * windows an event falls into, and a cleared map is shrunk to fit what its last window held, so a
+ * burst's capacity is released once its map has served a normal window. Memory therefore tracks
+ * the windows the watermark keeps open and their recent key counts, not the length of the
+ * stream. Not thread-safe.
+ */
+public final class EventTimeWindows {
+    @FunctionalInterface
+    public interface Sink {
+        void fire(long key, long windowStart, long windowEnd, long count, double sum, double min, double max,
+                  boolean late);
+    }
+
+    private final WatermarkWindow buckets = new WatermarkWindow();
+    private final long sizeSec;
+    private final long slideSec;
+    private final long allowedLatenessSec;
+    private final Sink sink;
+    private final int maxRecycled;
+    private final ArrayList<Window> open = new ArrayList<>();
+    private final ArrayDeque<Window> recycled = new ArrayDeque<>();
+    private long watermark = Long.MIN_VALUE;
+    private long dropped;
+
+    public EventTimeWindows(long sizeSec, long slideSec, long allowedLatenessSec, Sink sink) {
+        if (sizeSec <= 0 || slideSec <= 0 || slideSec > sizeSec || sizeSec % slideSec != 0) {
+            throw new IllegalArgumentException("size and slide must be positive and size a multiple of slide");
+        }
+        if (allowedLatenessSec < 0) {
+            throw new IllegalArgumentException("allowedLatenessSec must not be negative");
+        }
+        this.sizeSec = sizeSec;
+        this.slideSec = slideSec;
+        this.allowedLatenessSec = allowedLatenessSec;
+        this.sink = sink;
+        this.maxRecycled = (int) Math.min(sizeSec / slideSec + 1, Integer.MAX_VALUE);
+    }
+
+    public static EventTimeWindows tumbling(long sizeSec, long allowedLatenessSec, Sink sink) {
+        return new EventTimeWindows(sizeSec, sizeSec, allowedLatenessSec, sink);
+    }
+
+    public void add(long key, long eventTs, double value) {
+        if (eventTs < 0) {
+            throw new IllegalArgumentException("eventTs must be epoch seconds");
+        }
+        long lastStart = buckets.bucketFor(eventTs, slideSec) * slideSec;
+        for (long start = lastStart; start > eventTs - sizeSec; start -= slideSec) {
+            long end = start + sizeSec;
+            if (watermark != Long.MIN_VALUE && end + allowedLatenessSec <= watermark) {
+                dropped += 1;
+                continue;
+            }
+            Window window = windowFor(start);
+            int slot = window.state.update(key, value);
+            if (end <= watermark) {
+                window.state.fire(slot, start, end, true, sink);
+            }
+        }
+    }
+
+    public void advanceWatermark(long watermarkTs) {
+        if (watermarkTs <= watermark) {
+            return;
+        }
+        watermark = watermarkTs;
+        for (Window window : open) {
+            if (window.start + sizeSec > watermark) {
+                break;
+            }
+            if (!window.fired) {
+                window.fired = true;
+                window.state.fireAll(window.start, window.start + sizeSec, sink);
+            }
+        }
+        int evict = 0;
+        while (evict < open.size() && open.get(evict).start + sizeSec + allowedLatenessSec <= watermark) {
+            Window window = open.get(evict);
+            window.state.clear();
+            if (recycled.size() < maxRecycled) {
+                recycled.push(window);
+            }
+            evict += 1;
+        }
+        if (evict > 0) {
+            open.subList(0, evict).clear();
+        }
+    }
+
+    public long watermark() {
+        return watermark;
+    }
+
+    // Window assignments refused as too late: a sliding-window event counts once per window it
+    // missed, so this can exceed the number of events dropped.
+    public long dropped() {
+        return dropped;
+    }
+
+    public int openWindows() {
+        return open.size();
+    }
+
+    int recycledWindows() {
+        return recycled.size();
+    }
+
+    public int liveEntries() {
+        int entries = 0;
+        for (Window window : open) {
+            entries += window.state.size;
+        }
+        return entries;
+    }
+
+    private Window windowFor(long start) {
+        int lo = 0;
+        int hi = open.size() - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            long midStart = open.get(mid).start;
+            if (midStart == start) {
+                return open.get(mid);
+            }
+            if (midStart < start) {
+                lo = mid + 1;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        Window window = recycled.isEmpty() ? new Window() : recycled.pop();
+        window.start = start;
+        // A window first seen after the watermark passed its end is emitted by add() as late.
+        window.fired = start + sizeSec <= watermark;
+        open.add(lo, window);
+        return window;
+    }
+
+    private static final class Window {
+        long start;
+        boolean fired;
+        final KeyedAggregates state = new KeyedAggregates();
+    }
+
+    // Linear-probing long -> (count, sum, min, max); a zero count marks an empty slot.
+    static final class KeyedAggregates {
+        private static final int INITIAL_CAPACITY = 16;
+
+        private long[] keys = new long[INITIAL_CAPACITY];
+        private long[] counts = new long[INITIAL_CAPACITY];
+        private double[] sums = new double[INITIAL_CAPACITY];
+        private double[] mins = new double[INITIAL_CAPACITY];
+        private double[] maxs = new double[INITIAL_CAPACITY];
+        private int size;
+
+        int update(long key, double value) {
+            int mask = keys.length - 1;
+            int slot = (int) IdempotencyIndex.mix(key) & mask;
+            while (counts[slot] != 0 && keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            if (counts[slot] == 0) {
+                if ((size + 1) * 2 > keys.length) {
+                    grow();
+                    return update(key, value);
+                }
+                keys[slot] = key;
+                sums[slot] = 0;
+                mins[slot] = value;
+                maxs[slot] = value;
+                size += 1;
+            }
+            counts[slot] += 1;
+            sums[slot] += value;
+            mins[slot] = Math.min(mins[slot], value);
+            maxs[slot] = Math.max(maxs[slot], value);
+            return slot;
+        }
+
+        void fire(int slot, long start, long end, boolean late, Sink sink) {
+            sink.fire(keys[slot], start, end, counts[slot], sums[slot], mins[slot], maxs[slot], late);
+        }
+
+        void fireAll(long start, long end, Sink sink) {
+            for (int slot = 0; slot < keys.length; slot++) {
+                if (counts[slot] != 0) {
+                    fire(slot, start, end, false, sink);
+                }
+            }
+        }
+
+        // Tables more than four times what the cleared contents needed are reallocated to fit them.
+        void clear() {
+            int fit = Math.max(INITIAL_CAPACITY, Integer.highestOneBit(Math.max(1, size) * 2 - 1) * 2);
+            if (keys.length > 4 * fit) {
+                allocate(fit);
+            } else if (size > 0) {
+                Arrays.fill(counts, 0);
+            }
+            size = 0;
+        }
+
+        int capacity() {
+            return keys.length;
+        }
+
+        private void grow() {
+            resize(keys.length * 2);
+        }
+
+        private void allocate(int capacity) {
+            keys = new long[capacity];
+            counts = new long[capacity];
+            sums = new double[capacity];
+            mins = new double[capacity];
+            maxs = new double[capacity];
+        }
+
+        private void resize(int capacity) {
+            long[] oldKeys = keys;
+            long[] oldCounts = counts;
+            double[] oldSums = sums;
+            double[] oldMins = mins;
+            double[] oldMaxs = maxs;
+            allocate(capacity);
+            int mask = capacity - 1;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldCounts[i] == 0) {
+                    continue;
+                }
+                int slot = (int) IdempotencyIndex.mix(oldKeys[i]) & mask;
+                while (counts[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                counts[slot] = oldCounts[i];
+                sums[slot] = oldSums[i];
+                mins[slot] = oldMins[i];
+                maxs[slot] = oldMaxs[i];
+            }
+        }
+    }
+}
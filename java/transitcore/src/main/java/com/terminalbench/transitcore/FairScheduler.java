@@ -0,0 +1,175 @@
+package com.terminalbench.transitcore;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Deficit-round-robin scheduler over per-tenant sub-queues.
+ *
+ * <p>Only tenants with queued work sit on the active ring, so idle tenants cost nothing no
+ * matter how many are registered. On its turn a tenant's deficit is topped up by its weight and
+ * each dequeued item spends one unit; when the deficit runs out the tenant moves to the back of
+ * the ring. Every item costs the same, so both {@link #offer} and {@link #poll} are O(1), and
+ * over a round each backlogged tenant is served in proportion to its weight.
+ *
+ * <p>The {@link QueueGovernor.QueuePolicy} bounds each tenant's own sub-queue: at
+ * {@code maxInflight} queued items the tenant's oldest item is evicted when the policy drops
+ * oldest, otherwise the offer is throttled. A noisy tenant therefore only throttles itself.
+ */
+public final class FairScheduler<E> {
+    public record TenantStats(long enqueued, long dequeued, long dropped, long throttled, int depth,
+                              double meanWaitNanos, long maxWaitNanos) {}
+
+    private record Queued(Object element, long enqueuedAt) {}
+
+    private static final class Tenant {
+        final ArrayDeque<Queued> items = new ArrayDeque<>();
+        int weight = 1;
+        int deficit;
+        boolean active;
+        long enqueued;
+        long dequeued;
+        long dropped;
+        long throttled;
+        long totalWaitNanos;
+        long maxWaitNanos;
+    }
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<String, Tenant> tenants = new HashMap<>();
+    private final ArrayDeque<Tenant> ring = new ArrayDeque<>();
+    private final LongSupplier nanoClock;
+    private QueueGovernor.QueuePolicy policy;
+    private int size;
+
+    public FairScheduler(QueueGovernor.QueuePolicy policy) {
+        this(policy, System::nanoTime);
+    }
+
+    public FairScheduler(QueueGovernor.QueuePolicy policy, LongSupplier nanoClock) {
+        this.nanoClock = nanoClock;
+        applyPolicy(policy);
+    }
+
+    public void applyPolicy(QueueGovernor.QueuePolicy policy) {
+        if (policy.maxInflight() <= 0) {
+            throw new IllegalArgumentException("maxInflight must be positive");
+        }
+        lock.lock();
+        try {
+            this.policy = policy;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void setWeight(String tenantId, int weight) {
+        if (weight <= 0) {
+            throw new IllegalArgumentException("weight must be positive");
+        }
+        lock.lock();
+        try {
+            tenants.computeIfAbsent(tenantId, ignored -> new Tenant()).weight = weight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean offer(String tenantId, E element) {
+        if (element == null) {
+            throw new IllegalArgumentException("element must not be null");
+        }
+        long now = nanoClock.getAsLong();
+        lock.lock();
+        try {
+            Tenant tenant = tenants.computeIfAbsent(tenantId, ignored -> new Tenant());
+            if (tenant.items.size() >= policy.maxInflight()) {
+                if (!policy.dropOldest()) {
+                    tenant.throttled += 1;
+                    return false;
+                }
+                tenant.items.poll();
+                tenant.dropped += 1;
+                size -= 1;
+            }
+            tenant.items.add(new Queued(element, now));
+            tenant.enqueued += 1;
+            size += 1;
+            if (!tenant.active) {
+                tenant.active = true;
+                ring.addLast(tenant);
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public E poll() {
+        long now = nanoClock.getAsLong();
+        lock.lock();
+        try {
+            Tenant tenant = ring.peekFirst();
+            if (tenant == null) {
+                return null;
+            }
+            if (tenant.deficit <= 0) {
+                tenant.deficit += tenant.weight;
+            }
+            Queued queued = tenant.items.poll();
+            long wait = now - queued.enqueuedAt();
+            tenant.deficit -= 1;
+            tenant.dequeued += 1;
+            tenant.totalWaitNanos += wait;
+            tenant.maxWaitNanos = Math.max(tenant.maxWaitNanos, wait);
+            size -= 1;
+            if (tenant.items.isEmpty()) {
+                tenant.deficit = 0;
+                tenant.active = false;
+                ring.pollFirst();
+            } else if (tenant.deficit == 0) {
+                ring.addLast(ring.pollFirst());
+            }
+            return (E) queued.element();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int activeTenants() {
+        lock.lock();
+        try {
+            return ring.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public TenantStats stats(String tenantId) {
+        lock.lock();
+        try {
+            Tenant tenant = tenants.get(tenantId);
+            if (tenant == null) {
+                return new TenantStats(0, 0, 0, 0, 0, 0.0, 0);
+            }
+            double meanWait = tenant.dequeued == 0 ? 0.0 : (double) tenant.totalWaitNanos / tenant.dequeued;
+            return new TenantStats(tenant.enqueued, tenant.dequeued, tenant.dropped, tenant.throttled,
+                    tenant.items.size(), meanWait, tenant.maxWaitNanos);
+        } finally {
+            lock.unlock();
+        }
+    }
+}
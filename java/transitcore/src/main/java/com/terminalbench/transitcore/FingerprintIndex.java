@@ -0,0 +1,211 @@
+package com.terminalbench.transitcore;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Off-heap open-addressing set of 128-bit audit fingerprints.
+ *
+ * <p>{@link #firstSeen(CharSequence, CharSequence, CharSequence)} hashes exactly the characters
+ * {@link AuditTrail#fingerprint} would produce, streamed straight from the three components, so
+ * no concatenated string is built. Slots are 16-byte pairs in a direct buffer with linear
+ * probing; the table doubles at 3/4 load. Single-writer: not thread-safe.
+ */
+public final class FingerprintIndex {
+    private static final int SLOT_BYTES = 2 * Long.BYTES;
+    private static final int MAX_CAPACITY = 1 << 26;
+
+    private ByteBuffer slots;
+    private int mask;
+    private int size;
+    private final Hasher hasher = new Hasher();
+
+    public FingerprintIndex(int expectedEntries) {
+        if (expectedEntries <= 0) {
+            throw new IllegalArgumentException("expectedEntries must be positive");
+        }
+        allocate(Integer.highestOneBit(Math.max(16, Math.min(MAX_CAPACITY / 2, expectedEntries) * 2) - 1) << 1);
+    }
+
+    public boolean firstSeen(CharSequence tenant, CharSequence traceId, CharSequence eventType) {
+        hasher.hash(tenant, traceId, eventType);
+        return addIfAbsent(hasher.high(), hasher.low());
+    }
+
+    public boolean contains(long high, long low) {
+        if (high == 0 && low == 0) {
+            low = 1;
+        }
+        for (int i = slotFor(high, low); ; i = (i + 1) & mask) {
+            long storedHigh = slots.getLong(i * SLOT_BYTES);
+            long storedLow = slots.getLong(i * SLOT_BYTES + Long.BYTES);
+            if (storedHigh == high && storedLow == low) {
+                return true;
+            }
+            if (storedHigh == 0 && storedLow == 0) {
+                return false;
+            }
+        }
+    }
+
+    public boolean addIfAbsent(long high, long low) {
+        if (high == 0 && low == 0) {
+            low = 1;
+        }
+        for (int i = slotFor(high, low); ; i = (i + 1) & mask) {
+            long storedHigh = slots.getLong(i * SLOT_BYTES);
+            long storedLow = slots.getLong(i * SLOT_BYTES + Long.BYTES);
+            if (storedHigh == high && storedLow == low) {
+                return false;
+            }
+            if (storedHigh == 0 && storedLow == 0) {
+                slots.putLong(i * SLOT_BYTES, high);
+                slots.putLong(i * SLOT_BYTES + Long.BYTES, low);
+                size += 1;
+                if (size * 4L > (mask + 1L) * 3L) {
+                    grow();
+                }
+                return true;
+            }
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+
+    public long memoryBytes() {
+        return (long) capacity() * SLOT_BYTES;
+    }
+
+    private int slotFor(long high, long low) {
+        return (int) IdempotencyIndex.mix(high ^ Long.rotateLeft(low, 29)) & mask;
+    }
+
+    private void allocate(int capacity) {
+        slots = ByteBuffer.allocateDirect(capacity * SLOT_BYTES).order(ByteOrder.nativeOrder());
+        mask = capacity - 1;
+    }
+
+    private void grow() {
+        int capacity = mask + 1;
+        if (capacity >= MAX_CAPACITY) {
+            throw new IllegalStateException("fingerprint index full");
+        }
+        ByteBuffer previous = slots;
+        allocate(capacity * 2);
+        for (int i = 0; i < capacity; i++) {
+            long high = previous.getLong(i * SLOT_BYTES);
+            long low = previous.getLong(i * SLOT_BYTES + Long.BYTES);
+            if (high == 0 && low == 0) {
+                continue;
+            }
+            int slot = slotFor(high, low);
+            while (slots.getLong(slot * SLOT_BYTES) != 0 || slots.getLong(slot * SLOT_BYTES + Long.BYTES) != 0) {
+                slot = (slot + 1) & mask;
+            }
+            slots.putLong(slot * SLOT_BYTES, high);
+            slots.putLong(slot * SLOT_BYTES + Long.BYTES, low);
+        }
+    }
+
+    /**
+     * Reusable 128-bit hasher over {@code tenant + ":" + traceId + ":" + eventType} with the same
+     * outer trim as {@link AuditTrail#fingerprint}. Two independently seeded 64-bit lanes are
+     * cross-mixed at the end; collisions are negligible for dedup, but this is not a MAC.
+     */
+    public static final class Hasher {
+        private static final long LANE_A = 0x9E37_79B9_7F4A_7C15L;
+        private static final long LANE_B = 0xC2B2_AE3D_27D4_EB4FL;
+
+        private long high;
+        private long low;
+        private long a;
+        private long b;
+        private int length;
+        private boolean inBlankRun;
+        private long runA;
+        private long runB;
+        private int runLength;
+
+        public void hash(CharSequence tenant, CharSequence traceId, CharSequence eventType) {
+            reset();
+            feed(tenant);
+            feed(':');
+            feed(traceId);
+            feed(':');
+            feed(eventType);
+            finish();
+        }
+
+        // Same digest for an already-built fingerprint string, e.g. one read back from storage.
+        public void hash(CharSequence fingerprint) {
+            reset();
+            feed(fingerprint);
+            finish();
+        }
+
+        public long high() {
+            return high;
+        }
+
+        public long low() {
+            return low;
+        }
+
+        private void reset() {
+            a = 0x243F_6A88_85A3_08D3L;
+            b = 0x1319_8A2E_0370_7344L;
+            length = 0;
+            inBlankRun = false;
+        }
+
+        private void finish() {
+            if (inBlankRun) {
+                a = runA;
+                b = runB;
+                length = runLength;
+            }
+            long finalA = IdempotencyIndex.mix(a ^ length);
+            long finalB = IdempotencyIndex.mix(b ^ ((long) length << 32));
+            high = finalA ^ Long.rotateLeft(finalB, 17);
+            low = finalB ^ Long.rotateLeft(finalA, 41);
+        }
+
+        private void feed(CharSequence part) {
+            for (int i = 0; i < part.length(); i++) {
+                feed(part.charAt(i));
+            }
+        }
+
+        // String.trim() semantics on the whole stream: leading chars <= ' ' are dropped, and
+        // every other char is hashed as it arrives. The state at the start of each blank run is
+        // saved so that finish() can roll a trailing run back.
+        private void feed(char c) {
+            if (c <= ' ') {
+                if (length == 0) {
+                    return;
+                }
+                if (!inBlankRun) {
+                    inBlankRun = true;
+                    runA = a;
+                    runB = b;
+                    runLength = length;
+                }
+            } else {
+                inBlankRun = false;
+            }
+            mixChar(c);
+        }
+
+        private void mixChar(char c) {
+            a = (a ^ c) * LANE_A;
+            b = Long.rotateLeft(b + c, 23) * LANE_B;
+            length += 1;
+        }
+    }
+}
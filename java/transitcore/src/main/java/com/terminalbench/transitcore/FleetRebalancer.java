@@ -0,0 +1,163 @@
+package com.terminalbench.transitcore;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Columnar batch form of {@link CapacityBalancer#rebalance}: entry {@code i} of the result is
+ * exactly {@code rebalance(available[i], demand[i], reserveFloor[i])}, computed on a fork-join
+ * pool once the batch exceeds the parallel threshold.
+ *
+ * <p>With a global capacity the per-entry results become caps and the capacity is shared
+ * max-min fairly: every entry gets {@code min(cap, level)} for the highest level the capacity
+ * can afford, and the units left below the next level go one each to the lowest-indexed entries
+ * still under their cap. The level is found by binary search over parallel sums.
+ */
+public final class FleetRebalancer {
+    static final int PARALLEL_THRESHOLD = 1 << 14;
+
+    private final ForkJoinPool pool;
+    private final int parallelThreshold;
+
+    public FleetRebalancer() {
+        this(ForkJoinPool.commonPool(), PARALLEL_THRESHOLD);
+    }
+
+    public FleetRebalancer(ForkJoinPool pool, int parallelThreshold) {
+        if (parallelThreshold < 64) {
+            throw new IllegalArgumentException("parallelThreshold must be at least 64");
+        }
+        this.pool = pool;
+        this.parallelThreshold = parallelThreshold;
+    }
+
+    public int[] rebalance(int[] available, int[] demand, int[] reserveFloor) {
+        int[] admitted = new int[checkColumns(available, demand, reserveFloor)];
+        admit(available, demand, reserveFloor, admitted);
+        return admitted;
+    }
+
+    public int[] rebalance(int[] available, int[] demand, int[] reserveFloor, long globalCapacity) {
+        if (globalCapacity < 0) {
+            throw new IllegalArgumentException("globalCapacity must not be negative");
+        }
+        int[] admitted = new int[checkColumns(available, demand, reserveFloor)];
+        long[] totals = admit(available, demand, reserveFloor, admitted);
+        if (totals[0] <= globalCapacity) {
+            return admitted;
+        }
+        int lo = 0;
+        int hi = (int) totals[1];
+        while (lo < hi) {
+            int mid = (int) ((lo + (long) hi + 1) >>> 1);
+            if (run(Pass.LEVEL_SUM, null, null, null, admitted, mid)[0] <= globalCapacity) {
+                lo = mid;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        int level = lo;
+        long remainder = globalCapacity - run(Pass.CLAMP, null, null, null, admitted, level)[0];
+        for (int i = 0; i < admitted.length && remainder > 0; i++) {
+            if (admitted[i] == level && capped(available, demand, reserveFloor, i) > level) {
+                admitted[i] += 1;
+                remainder -= 1;
+            }
+        }
+        return admitted;
+    }
+
+    private static int checkColumns(int[] available, int[] demand, int[] reserveFloor) {
+        if (available.length != demand.length || available.length != reserveFloor.length) {
+            throw new IllegalArgumentException("column length mismatch");
+        }
+        return available.length;
+    }
+
+    private static int capped(int[] available, int[] demand, int[] reserveFloor, int i) {
+        return CapacityBalancer.admitted(available[i], demand[i], reserveFloor[i]);
+    }
+
+    private long[] admit(int[] available, int[] demand, int[] reserveFloor, int[] out) {
+        return run(Pass.ADMIT, available, demand, reserveFloor, out, 0);
+    }
+
+    private long[] run(Pass pass, int[] available, int[] demand, int[] reserveFloor, int[] values, int level) {
+        if (values.length <= parallelThreshold) {
+            return kernel(pass, available, demand, reserveFloor, values, level, 0, values.length);
+        }
+        return pool.invoke(new PassTask(pass, available, demand, reserveFloor, values, level, 0, values.length,
+                parallelThreshold));
+    }
+
+    private enum Pass { ADMIT, LEVEL_SUM, CLAMP }
+
+    // Returns {sum, max} of the pass's output over [from, to).
+    private static long[] kernel(Pass pass, int[] available, int[] demand, int[] reserveFloor, int[] values,
+                                 int level, int from, int to) {
+        long sum = 0;
+        int max = 0;
+        switch (pass) {
+            case ADMIT -> {
+                for (int i = from; i < to; i++) {
+                    int admitted = CapacityBalancer.admitted(available[i], demand[i], reserveFloor[i]);
+                    values[i] = admitted;
+                    sum += admitted;
+                    max = Math.max(max, admitted);
+                }
+            }
+            case LEVEL_SUM -> {
+                for (int i = from; i < to; i++) {
+                    sum += Math.min(values[i], level);
+                }
+            }
+            case CLAMP -> {
+                for (int i = from; i < to; i++) {
+                    int clamped = Math.min(values[i], level);
+                    values[i] = clamped;
+                    sum += clamped;
+                }
+            }
+        }
+        return new long[] {sum, max};
+    }
+
+    @SuppressWarnings("serial")
+    private static final class PassTask extends RecursiveTask<long[]> {
+        private final Pass pass;
+        private final int[] available;
+        private final int[] demand;
+        private final int[] reserveFloor;
+        private final int[] values;
+        private final int level;
+        private final int from;
+        private final int to;
+        private final int threshold;
+
+        PassTask(Pass pass, int[] available, int[] demand, int[] reserveFloor, int[] values, int level,
+                 int from, int to, int threshold) {
+            this.pass = pass;
+            this.available = available;
+            this.demand = demand;
+            this.reserveFloor = reserveFloor;
+            this.values = values;
+            this.level = level;
+            this.from = from;
+            this.to = to;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected long[] compute() {
+            if (to - from <= threshold) {
+                return kernel(pass, available, demand, reserveFloor, values, level, from, to);
+            }
+            int mid = (from + to) >>> 1;
+            PassTask left = new PassTask(pass, available, demand, reserveFloor, values, level, from, mid, threshold);
+            left.fork();
+            long[] right = new PassTask(pass, available, demand, reserveFloor, values, level, mid, to, threshold).compute();
+            long[] joined = left.join();
+            return new long[] {joined[0] + right[0], Math.max(joined[1], right[1])};
+        }
+    }
+}
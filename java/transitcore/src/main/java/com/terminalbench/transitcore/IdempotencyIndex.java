@@ -0,0 +1,257 @@
+package com.terminalbench.transitcore;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Windowed "seen before?" index for idempotency keys.
+ *
+ * <p>Keys are reduced to 64-bit hashes and kept in two generations, each a Bloom filter in front
+ * of an exact open-addressing table of hashes. A generation becomes the older one once it has
+ * spanned a full window of stamps, and the older one is dropped wholesale at the next rotation.
+ * A key stamped {@code s} (a version or an epoch second) is therefore always remembered while
+ * stamps stay below {@code s + window}, and is forgotten somewhere between one and two windows
+ * later, depending on where {@code s} fell in its generation and on which stamps arrive; a gap
+ * of two windows or more forgets everything at once. A generation's table grows to absorb a
+ * burst and is shrunk back to its configured size when the generation is recycled, so retained
+ * memory follows the intake of the last two windows. The Bloom filter only short-circuits misses
+ * and never causes a wrong answer; the only false "duplicate" is a full 64-bit hash collision.
+ * Not thread-safe.
+ */
+public final class IdempotencyIndex implements ResilienceReplay.CheckpointableFilter {
+    private final long window;
+    private final Generation[] generations = new Generation[2];
+    private int current;
+    private long currentStart = Long.MIN_VALUE;
+
+    private long lookups;
+    private long bloomNegatives;
+    private long bloomFalsePositives;
+    private long duplicates;
+
+    public IdempotencyIndex(long window, int expectedKeysPerWindow, double bloomFalsePositiveRate) {
+        if (window <= 0) {
+            throw new IllegalArgumentException("window must be positive");
+        }
+        if (expectedKeysPerWindow <= 0) {
+            throw new IllegalArgumentException("expectedKeysPerWindow must be positive");
+        }
+        if (!(bloomFalsePositiveRate > 0 && bloomFalsePositiveRate < 1)) {
+            throw new IllegalArgumentException("bloomFalsePositiveRate must be in (0, 1)");
+        }
+        this.window = window;
+        for (int i = 0; i < generations.length; i++) {
+            generations[i] = new Generation(expectedKeysPerWindow, bloomFalsePositiveRate);
+        }
+    }
+
+    @Override
+    public boolean firstSeen(String key, long stamp) {
+        return firstSeen(hash(key), stamp);
+    }
+
+    public boolean firstSeen(long keyHash, long stamp) {
+        advance(stamp);
+        lookups += 1;
+        long slot = keyHash == 0 ? 0x9E37_79B9_7F4A_7C15L : keyHash;
+        Generation older = generations[current ^ 1];
+        Generation newer = generations[current];
+        boolean maybeOlder = older.bloomMightContain(slot);
+        boolean maybeNewer = newer.bloomMightContain(slot);
+        if (!maybeOlder && !maybeNewer) {
+            bloomNegatives += 1;
+            newer.insert(slot);
+            return true;
+        }
+        if ((maybeOlder && older.contains(slot)) || (maybeNewer && newer.contains(slot))) {
+            duplicates += 1;
+            return false;
+        }
+        bloomFalsePositives += 1;
+        newer.insert(slot);
+        return true;
+    }
+
+    // Both generations' key hashes and the rotation position; Bloom bits are rebuilt on read.
+    @Override
+    public void writeState(DataOutput out) throws IOException {
+        out.writeLong(window);
+        out.writeInt(current);
+        out.writeLong(currentStart);
+        for (Generation generation : generations) {
+            out.writeInt(generation.size);
+            for (long slot : generation.table) {
+                if (slot != 0) {
+                    out.writeLong(slot);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void readState(DataInput in) throws IOException {
+        if (in.readLong() != window) {
+            throw new IOException("saved idempotency state uses a different window");
+        }
+        current = in.readInt() & 1;
+        currentStart = in.readLong();
+        for (Generation generation : generations) {
+            generation.clear();
+            for (int i = in.readInt(); i > 0; i--) {
+                generation.insert(in.readLong());
+            }
+        }
+    }
+
+    public long size() {
+        return generations[0].size + generations[1].size;
+    }
+
+    public long memoryBytes() {
+        return generations[0].memoryBytes() + generations[1].memoryBytes();
+    }
+
+    public long lookups() {
+        return lookups;
+    }
+
+    public long duplicates() {
+        return duplicates;
+    }
+
+    public long bloomNegatives() {
+        return bloomNegatives;
+    }
+
+    /** Share of lookups for new keys that the Bloom filter failed to short-circuit. */
+    public double observedBloomFalsePositiveRate() {
+        long fresh = bloomNegatives + bloomFalsePositives;
+        return fresh == 0 ? 0.0 : (double) bloomFalsePositives / fresh;
+    }
+
+    public static long hash(CharSequence key) {
+        long h = 0xCBF2_9CE4_8422_2325L;
+        for (int i = 0; i < key.length(); i++) {
+            h = (h ^ key.charAt(i)) * 0x0000_0100_0000_01B3L;
+        }
+        return mix(h ^ key.length());
+    }
+
+    static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xFF51_AFD7_ED55_8CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CE_B9FE_1A85_EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private void advance(long stamp) {
+        if (currentStart == Long.MIN_VALUE) {
+            currentStart = stamp;
+            return;
+        }
+        if (stamp - currentStart < window) {
+            return;
+        }
+        if (stamp - currentStart >= 2 * window) {
+            generations[current].clear();
+        }
+        current ^= 1;
+        generations[current].clear();
+        currentStart = stamp;
+    }
+
+    private static final class Generation {
+        private final long[] bloom;
+        private final int bloomMask;
+        private final int bloomHashes;
+        private final int baseTableLength;
+        private long[] table;
+        private int size;
+
+        Generation(int expectedKeys, double falsePositiveRate) {
+            double bits = -expectedKeys * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2));
+            int words = Integer.highestOneBit((int) Math.min(1 << 24, Math.max(64, Math.ceil(bits / 64)) * 2 - 1));
+            this.bloom = new long[words];
+            this.bloomMask = words * 64 - 1;
+            this.bloomHashes = (int) Math.max(1, Math.min(16, Math.round((double) words * 64 / expectedKeys * Math.log(2))));
+            this.baseTableLength = Integer.highestOneBit(Math.max(16, expectedKeys) * 4 - 1);
+            this.table = new long[baseTableLength];
+        }
+
+        boolean bloomMightContain(long keyHash) {
+            int h1 = (int) keyHash;
+            int h2 = (int) (keyHash >>> 32) | 1;
+            for (int i = 0; i < bloomHashes; i++) {
+                int bit = (h1 + i * h2) & bloomMask;
+                if ((bloom[bit >>> 6] & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        boolean contains(long keyHash) {
+            int mask = table.length - 1;
+            for (int i = (int) mix(keyHash) & mask; ; i = (i + 1) & mask) {
+                long slot = table[i];
+                if (slot == keyHash) {
+                    return true;
+                }
+                if (slot == 0) {
+                    return false;
+                }
+            }
+        }
+
+        void insert(long keyHash) {
+            int h1 = (int) keyHash;
+            int h2 = (int) (keyHash >>> 32) | 1;
+            for (int i = 0; i < bloomHashes; i++) {
+                int bit = (h1 + i * h2) & bloomMask;
+                bloom[bit >>> 6] |= 1L << bit;
+            }
+            if ((size + 1) * 2 > table.length) {
+                grow();
+            }
+            place(table, keyHash);
+            size += 1;
+        }
+
+        void clear() {
+            Arrays.fill(bloom, 0L);
+            if (table.length > baseTableLength) {
+                table = new long[baseTableLength];
+            } else {
+                Arrays.fill(table, 0L);
+            }
+            size = 0;
+        }
+
+        long memoryBytes() {
+            return (long) (bloom.length + table.length) * Long.BYTES;
+        }
+
+        private void grow() {
+            long[] larger = new long[table.length * 2];
+            for (long slot : table) {
+                if (slot != 0) {
+                    place(larger, slot);
+                }
+            }
+            table = larger;
+        }
+
+        private static void place(long[] target, long keyHash) {
+            int mask = target.length - 1;
+            int i = (int) mix(keyHash) & mask;
+            while (target[i] != 0) {
+                i = (i + 1) & mask;
+            }
+            target[i] = keyHash;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.terminalbench.transitcore;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+/**
+ * Replays independent partitions (tenants, aggregates) in parallel and merges the per-partition
+ * snapshots. The partition key must be derived from the idempotency key, so duplicate deliveries
+ * always land in the same partition.
+ *
+ * <p>The sequential fold applies at most one event per version, so two partitions that each
+ * apply an event at the same version would diverge from {@link ResilienceReplay#replay}. That is
+ * detected after the parallel phase and the batch is replayed sequentially instead; the result is
+ * identical to the sequential path either way.
+ */
+public final class PartitionedReplay {
+    private final ExecutorService executor;
+    private final Function<String, String> partitionOf;
+    private final int buckets;
+    private final ResilienceReplay sequential = new ResilienceReplay();
+
+    public PartitionedReplay(ExecutorService executor, Function<String, String> partitionOf, int buckets) {
+        if (buckets <= 0) {
+            throw new IllegalArgumentException("buckets must be positive");
+        }
+        this.executor = executor;
+        this.partitionOf = partitionOf;
+        this.buckets = buckets;
+    }
+
+    public static String tenantPrefix(String idempotencyKey) {
+        int separator = idempotencyKey.indexOf(':');
+        return separator < 0 ? idempotencyKey : idempotencyKey.substring(0, separator);
+    }
+
+    public ResilienceReplay.ReplaySnapshot replay(
+            long baseInflight, long baseBacklog, long currentVersion, List<ResilienceReplay.ReplayEvent> events) {
+        List<List<ResilienceReplay.ReplayEvent>> partitions = new ArrayList<>(buckets);
+        for (int i = 0; i < buckets; i++) {
+            partitions.add(new ArrayList<>());
+        }
+        for (ResilienceReplay.ReplayEvent event : events) {
+            int bucket = Math.floorMod(partitionOf.apply(event.idempotencyKey()).hashCode(), buckets);
+            partitions.get(bucket).add(event);
+        }
+
+        List<Callable<PartitionResult>> tasks = new ArrayList<>(buckets);
+        for (List<ResilienceReplay.ReplayEvent> partition : partitions) {
+            if (!partition.isEmpty()) {
+                tasks.add(() -> replayPartition(baseInflight, baseBacklog, currentVersion, partition));
+            }
+        }
+        List<PartitionResult> results = invokeAll(tasks);
+
+        int totalApplied = 0;
+        for (PartitionResult result : results) {
+            totalApplied += result.appliedVersions().length;
+        }
+        long[] appliedVersions = new long[totalApplied];
+        int offset = 0;
+        long inflight = baseInflight;
+        long backlog = baseBacklog;
+        long version = currentVersion;
+        for (PartitionResult result : results) {
+            System.arraycopy(result.appliedVersions(), 0, appliedVersions, offset, result.appliedVersions().length);
+            offset += result.appliedVersions().length;
+            inflight += result.snapshot().inflight() - baseInflight;
+            backlog += result.snapshot().backlog() - baseBacklog;
+            version = Math.max(version, result.snapshot().version());
+        }
+        Arrays.parallelSort(appliedVersions);
+        for (int i = 1; i < appliedVersions.length; i++) {
+            if (appliedVersions[i] == appliedVersions[i - 1]) {
+                return sequential.replay(baseInflight, baseBacklog, currentVersion, events);
+            }
+        }
+        return new ResilienceReplay.ReplaySnapshot(inflight, backlog, version, totalApplied);
+    }
+
+    private static PartitionResult replayPartition(
+            long baseInflight, long baseBacklog, long currentVersion, List<ResilienceReplay.ReplayEvent> partition) {
+        partition.sort(ResilienceReplay.REPLAY_ORDER);
+        ResilienceReplay.ReplayFold fold = new ResilienceReplay.ReplayFold(
+                baseInflight, baseBacklog, currentVersion, ResilienceReplay.exactFilter());
+        long[] applied = new long[16];
+        int count = 0;
+        for (ResilienceReplay.ReplayEvent event : partition) {
+            if (fold.apply(event)) {
+                if (count == applied.length) {
+                    applied = Arrays.copyOf(applied, count * 2);
+                }
+                applied[count++] = event.version();
+            }
+        }
+        return new PartitionResult(fold.snapshot(), Arrays.copyOf(applied, count));
+    }
+
+    private List<PartitionResult> invokeAll(List<Callable<PartitionResult>> tasks) {
+        try {
+            List<PartitionResult> results = new ArrayList<>(tasks.size());
+            for (Future<PartitionResult> future : executor.invokeAll(tasks)) {
+                results.add(future.get());
+            }
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("replay interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException("partition replay failed", e.getCause());
+        }
+    }
+
+    private record PartitionResult(ResilienceReplay.ReplaySnapshot snapshot, long[] appliedVersions) {}
+}
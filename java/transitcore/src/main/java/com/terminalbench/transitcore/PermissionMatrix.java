@@ -0,0 +1,198 @@
+package com.terminalbench.transitcore;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Role/action permissions as one {@code long} bitmask per (tenant layer, role).
+ *
+ * <p>Roles, actions and tenants are interned to ints when the matrix is built. A role's mask is
+ * its own actions plus everything its parent role can do, so {@code admin} inherits from
+ * {@code reviewer}, which inherits from {@code operator}. A tenant layer can grant or deny
+ * actions per role; a deny also removes the action from roles that inherit from that role
+ * unless they grant it themselves. Layer 0 is the base matrix and is used for tenants without
+ * overrides. Every check is an array read and a bit test, with no allocation. Immutable.
+ */
+public final class PermissionMatrix {
+    public static final int NONE = -1;
+    public static final int BASE_LAYER = 0;
+
+    private final Map<String, Integer> roleIds;
+    private final Map<String, Integer> actionIds;
+    private final Map<String, Integer> tenantIds;
+    private final String[] actions;
+    private final int roleCount;
+    private final long[] masks;
+
+    private PermissionMatrix(Builder builder) {
+        roleCount = builder.roles.size();
+        roleIds = new HashMap<>(builder.roleIds);
+        actionIds = new HashMap<>(builder.actionIds);
+        actions = builder.actions.toArray(new String[0]);
+        tenantIds = new HashMap<>();
+        List<String> tenants = new ArrayList<>(builder.overrides.keySet());
+        masks = new long[(tenants.size() + 1) * roleCount];
+        resolve(BASE_LAYER, builder, null);
+        for (int i = 0; i < tenants.size(); i++) {
+            tenantIds.put(tenants.get(i), i + 1);
+            resolve(i + 1, builder, builder.overrides.get(tenants.get(i)));
+        }
+    }
+
+    // Same roles and answers as SecurityPolicy.allowed, arranged as operator < reviewer < admin.
+    public static PermissionMatrix standard() {
+        return standardBuilder().build();
+    }
+
+    public static Builder standardBuilder() {
+        Map<String, Set<String>> table = SecurityPolicy.roleActions();
+        if (!table.keySet().equals(Set.of("operator", "reviewer", "admin"))) {
+            throw new IllegalStateException("unexpected roles in security policy: " + table.keySet());
+        }
+        Builder builder = new Builder();
+        String parent = null;
+        for (String role : List.of("operator", "reviewer", "admin")) {
+            if (parent != null && !table.get(role).containsAll(table.get(parent))) {
+                throw new IllegalStateException(role + " does not contain " + parent);
+            }
+            Set<String> inherited = parent == null ? Set.of() : table.get(parent);
+            builder.role(role, parent, table.get(role).stream().filter(a -> !inherited.contains(a)).sorted().toArray(String[]::new));
+            parent = role;
+        }
+        return builder;
+    }
+
+    public int roleId(String role) {
+        Integer id = roleIds.get(role);
+        return id == null ? NONE : id;
+    }
+
+    public int actionId(String action) {
+        Integer id = actionIds.get(action);
+        return id == null ? NONE : id;
+    }
+
+    // Unknown tenants fall back to the base layer.
+    public int tenantLayer(String tenant) {
+        Integer layer = tenantIds.get(tenant);
+        return layer == null ? BASE_LAYER : layer;
+    }
+
+    public String actionName(int action) {
+        return actions[action];
+    }
+
+    public long actions(int layer, int role) {
+        return role < 0 || role >= roleCount ? 0L : masks[layer * roleCount + role];
+    }
+
+    public boolean allowed(int role, int action) {
+        return allowed(BASE_LAYER, role, action);
+    }
+
+    public boolean allowed(int layer, int role, int action) {
+        return action >= 0 && (actions(layer, role) >>> action & 1L) != 0;
+    }
+
+    public boolean allowed(String role, String action) {
+        return allowed(BASE_LAYER, roleId(role), actionId(action));
+    }
+
+    public boolean allowed(String tenant, String role, String action) {
+        return allowed(tenantLayer(tenant), roleId(role), actionId(action));
+    }
+
+    // Parents are declared before children, so one pass in role order resolves inheritance.
+    private void resolve(int layer, Builder builder, long[][] override) {
+        int base = layer * roleCount;
+        for (int role = 0; role < roleCount; role++) {
+            int parent = builder.parents.get(role);
+            long mask = builder.own.get(role) | (parent == NONE ? 0L : masks[base + parent]);
+            if (override != null && role < override[0].length) {
+                mask = (mask | override[0][role]) & ~override[1][role];
+            }
+            masks[base + role] = mask;
+        }
+    }
+
+    public static final class Builder {
+        private final List<String> roles = new ArrayList<>();
+        private final Map<String, Integer> roleIds = new HashMap<>();
+        private final List<Integer> parents = new ArrayList<>();
+        private final List<Long> own = new ArrayList<>();
+        private final List<String> actions = new ArrayList<>();
+        private final Map<String, Integer> actionIds = new HashMap<>();
+        private final Map<String, long[][]> overrides = new HashMap<>();
+
+        public Builder role(String role, String parent, String... roleActions) {
+            if (roleIds.containsKey(role)) {
+                throw new IllegalArgumentException("duplicate role " + role);
+            }
+            int parentId = NONE;
+            if (parent != null) {
+                Integer id = roleIds.get(parent);
+                if (id == null) {
+                    throw new IllegalArgumentException("parent role must be declared first: " + parent);
+                }
+                parentId = id;
+            }
+            long mask = 0;
+            for (String action : roleActions) {
+                mask |= 1L << action(action);
+            }
+            roleIds.put(role, roles.size());
+            roles.add(role);
+            parents.add(parentId);
+            own.add(mask);
+            return this;
+        }
+
+        public Builder grant(String tenant, String role, String action) {
+            layer(tenant)[0][role(role)] |= 1L << action(action);
+            return this;
+        }
+
+        public Builder deny(String tenant, String role, String action) {
+            layer(tenant)[1][role(role)] |= 1L << action(action);
+            return this;
+        }
+
+        public PermissionMatrix build() {
+            return new PermissionMatrix(this);
+        }
+
+        private int action(String action) {
+            Integer id = actionIds.get(action);
+            if (id != null) {
+                return id;
+            }
+            if (actions.size() == Long.SIZE) {
+                throw new IllegalArgumentException("at most 64 actions are supported");
+            }
+            actionIds.put(action, actions.size());
+            actions.add(action);
+            return actions.size() - 1;
+        }
+
+        private int role(String role) {
+            Integer id = roleIds.get(role);
+            if (id == null) {
+                throw new IllegalArgumentException("unknown role " + role);
+            }
+            return id;
+        }
+
+        private long[][] layer(String tenant) {
+            long[][] layer = overrides.computeIfAbsent(tenant, t -> new long[2][roles.size()]);
+            if (layer[0].length < roles.size()) {
+                layer[0] = Arrays.copyOf(layer[0], roles.size());
+                layer[1] = Arrays.copyOf(layer[1], roles.size());
+            }
+            return layer;
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package com.terminalbench.transitcore;
+
+import java.util.Arrays;
+
+/**
+ * Mergeable streaming quantile sketch (merging t-digest, arcsine scale function).
+ *
+ * <p>Memory is bounded by the compression {@code delta}: at most ~{@code delta} centroids plus
+ * a fixed insert buffer, regardless of how many values are added. A centroid never spans more
+ * than one unit of the scale function, so the rank error of {@link #quantile(double)} at
+ * quantile {@code q} is at most about {@code PI * sqrt(q * (1 - q)) / delta}: roughly 1.6% at
+ * the median and 0.3% at p99 for the default {@code delta = 100}. Not thread-safe; keep one
+ * sketch per thread or node and {@link #merge(QuantileSketch)} them.
+ */
+public final class QuantileSketch {
+    public static final double DEFAULT_COMPRESSION = 100.0;
+
+    private final double compression;
+    private final double[] mean;
+    private final double[] weight;
+    private final double[] cumulative;
+    private int centroids;
+
+    private final double[] bufferMean;
+    private final double[] bufferWeight;
+    private int buffered;
+
+    private double mergedWeight;
+    private double bufferedWeight;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    public QuantileSketch() {
+        this(DEFAULT_COMPRESSION);
+    }
+
+    public QuantileSketch(double compression) {
+        if (!(compression >= 10)) {
+            throw new IllegalArgumentException("compression must be at least 10");
+        }
+        this.compression = compression;
+        int capacity = ((int) Math.ceil(compression) + 10) * 6;
+        this.mean = new double[capacity];
+        this.weight = new double[capacity];
+        this.cumulative = new double[capacity];
+        this.bufferMean = new double[capacity];
+        this.bufferWeight = new double[capacity];
+    }
+
+    public void add(double value) {
+        add(value, 1.0);
+    }
+
+    public void addAll(double[] values) {
+        for (double value : values) {
+            add(value, 1.0);
+        }
+    }
+
+    public void merge(QuantileSketch other) {
+        if (other == this) {
+            throw new IllegalArgumentException("cannot merge a sketch into itself");
+        }
+        other.flush();
+        for (int i = 0; i < other.centroids; i++) {
+            add(other.mean[i], other.weight[i]);
+        }
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    public long count() {
+        return Math.round(mergedWeight + bufferedWeight);
+    }
+
+    public double min() {
+        requireValues();
+        return min;
+    }
+
+    public double max() {
+        requireValues();
+        return max;
+    }
+
+    public double quantile(double p) {
+        requireValues();
+        flush();
+        if (centroids == 1) {
+            return mean[0];
+        }
+        double q = Math.max(0.0, Math.min(1.0, p));
+        double index = q * mergedWeight;
+        double firstCenter = weight[0] / 2.0;
+        if (index <= firstCenter) {
+            return interpolate(min, mean[0], index / firstCenter);
+        }
+        int last = centroids - 1;
+        double lastCenter = mergedWeight - weight[last] / 2.0;
+        if (index >= lastCenter) {
+            return interpolate(mean[last], max, (index - lastCenter) / (weight[last] / 2.0));
+        }
+        int hi = Arrays.binarySearch(cumulative, 0, centroids, index);
+        if (hi < 0) {
+            hi = -hi - 1;
+        }
+        int lo = hi - 1;
+        double span = cumulative[hi] - cumulative[lo];
+        return interpolate(mean[lo], mean[hi], span == 0 ? 0.0 : (index - cumulative[lo]) / span);
+    }
+
+    public int centroidCount() {
+        flush();
+        return centroids;
+    }
+
+    private void add(double value, double w) {
+        if (Double.isNaN(value)) {
+            throw new IllegalArgumentException("value is NaN");
+        }
+        if (buffered + centroids == bufferMean.length) {
+            flush();
+        }
+        bufferMean[buffered] = value;
+        bufferWeight[buffered] = w;
+        buffered += 1;
+        bufferedWeight += w;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    private void flush() {
+        if (buffered == 0) {
+            return;
+        }
+        System.arraycopy(mean, 0, bufferMean, buffered, centroids);
+        System.arraycopy(weight, 0, bufferWeight, buffered, centroids);
+        int n = buffered + centroids;
+        sortByMean(bufferMean, bufferWeight, 0, n - 1);
+
+        double total = mergedWeight + bufferedWeight;
+        double soFar = 0.0;
+        double limit = total * qForK(kForQ(0.0) + 1.0);
+        int out = 0;
+        mean[0] = bufferMean[0];
+        weight[0] = bufferWeight[0];
+        for (int i = 1; i < n; i++) {
+            double proposed = weight[out] + bufferWeight[i];
+            if (soFar + proposed <= limit) {
+                weight[out] = proposed;
+                mean[out] += (bufferMean[i] - mean[out]) * bufferWeight[i] / proposed;
+            } else {
+                soFar += weight[out];
+                limit = total * qForK(kForQ(soFar / total) + 1.0);
+                out += 1;
+                mean[out] = bufferMean[i];
+                weight[out] = bufferWeight[i];
+            }
+        }
+        centroids = out + 1;
+        double running = 0.0;
+        for (int i = 0; i < centroids; i++) {
+            cumulative[i] = running + weight[i] / 2.0;
+            running += weight[i];
+        }
+        mergedWeight = total;
+        bufferedWeight = 0.0;
+        buffered = 0;
+    }
+
+    private double kForQ(double q) {
+        return compression / (2.0 * Math.PI) * Math.asin(2.0 * q - 1.0);
+    }
+
+    private double qForK(double k) {
+        double scaled = k * 2.0 * Math.PI / compression;
+        if (scaled >= Math.PI / 2.0) {
+            return 1.0;
+        }
+        return (Math.sin(scaled) + 1.0) / 2.0;
+    }
+
+    private void requireValues() {
+        if (buffered == 0 && centroids == 0) {
+            throw new IllegalArgumentException("sketch empty");
+        }
+    }
+
+    private static double interpolate(double from, double to, double fraction) {
+        return from + (to - from) * Math.max(0.0, Math.min(1.0, fraction));
+    }
+
+    private static void sortByMean(double[] keys, double[] values, int lo, int hi) {
+        while (hi - lo > 16) {
+            double pivot = keys[(lo + hi) >>> 1];
+            int i = lo;
+            int j = hi;
+            while (i <= j) {
+                while (keys[i] < pivot) {
+                    i += 1;
+                }
+                while (keys[j] > pivot) {
+                    j -= 1;
+                }
+                if (i <= j) {
+                    swap(keys, values, i, j);
+                    i += 1;
+                    j -= 1;
+                }
+            }
+            if (j - lo < hi - i) {
+                sortByMean(keys, values, lo, j);
+                lo = i;
+            } else {
+                sortByMean(keys, values, i, hi);
+                hi = j;
+            }
+        }
+        for (int i = lo + 1; i <= hi; i++) {
+            for (int j = i; j > lo && keys[j] < keys[j - 1]; j--) {
+                swap(keys, values, j, j - 1);
+            }
+        }
+    }
+
+    private static void swap(double[] keys, double[] values, int a, int b) {
+        double key = keys[a];
+        keys[a] = keys[b];
+        keys[b] = key;
+        double value = values[a];
+        values[a] = values[b];
+        values[b] = value;
+    }
+}
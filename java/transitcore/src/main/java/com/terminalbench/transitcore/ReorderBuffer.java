@@ -0,0 +1,202 @@
+package com.terminalbench.transitcore;
+
+import java.util.Arrays;
+import java.util.function.ToIntFunction;
+
+/**
+ * Reorders skewed events by event time instead of rejecting them the way
+ * {@link WatermarkWindow#accept} does.
+ *
+ * <p>Events wait in a binary min-heap on {@code (eventTs, arrival)} held in primitive arrays. The
+ * watermark trails the highest event time seen by {@code maxSkewSec} (or is moved explicitly),
+ * and every event at or below it is released to the sink in event-time order, ties in arrival
+ * order. An event below the watermark can no longer be placed in order; it is
+ * {@link Admission#LATE} and is not buffered. Buffered sizes are summed with {@code sizeOf}; an
+ * event that would take the buffer past {@code maxBytes} is refused with {@link Admission#FULL},
+ * leaving the caller to slow down, advance the watermark or {@link #flush()}. Not thread-safe.
+ */
+public final class ReorderBuffer<E> {
+    public enum Admission { BUFFERED, LATE, FULL }
+
+    @FunctionalInterface
+    public interface Sink<E> {
+        void accept(long eventTs, E event);
+    }
+
+    private final long maxSkewSec;
+    private final long maxBytes;
+    private final ToIntFunction<? super E> sizeOf;
+    private final Sink<? super E> sink;
+    private long[] times = new long[64];
+    private long[] arrivals = new long[64];
+    private int[] sizes = new int[64];
+    private Object[] events = new Object[64];
+    private int size;
+    private long bufferedBytes;
+    private long arrival;
+    private long maxEventTs = Long.MIN_VALUE;
+    private long watermark = Long.MIN_VALUE;
+    private long released;
+    private long late;
+    private long refused;
+
+    public ReorderBuffer(long maxSkewSec, long maxBytes, ToIntFunction<? super E> sizeOf, Sink<? super E> sink) {
+        if (maxSkewSec < 0 || maxBytes <= 0) {
+            throw new IllegalArgumentException("maxSkewSec must not be negative and maxBytes must be positive");
+        }
+        this.maxSkewSec = maxSkewSec;
+        this.maxBytes = maxBytes;
+        this.sizeOf = sizeOf;
+        this.sink = sink;
+    }
+
+    public Admission offer(long eventTs, E event) {
+        if (eventTs < watermark) {
+            late += 1;
+            return Admission.LATE;
+        }
+        int bytes = sizeOf.applyAsInt(event);
+        if (bufferedBytes + bytes > maxBytes && size > 0) {
+            refused += 1;
+            return Admission.FULL;
+        }
+        push(eventTs, bytes, event);
+        if (eventTs > maxEventTs) {
+            maxEventTs = eventTs;
+            advanceWatermark(eventTs - maxSkewSec);
+        }
+        // Also covers a new maximum landing exactly on a watermark advanced by hand.
+        if (eventTs <= watermark) {
+            releaseUpToWatermark();
+        }
+        return Admission.BUFFERED;
+    }
+
+    public void advanceWatermark(long watermarkTs) {
+        if (watermarkTs <= watermark) {
+            return;
+        }
+        watermark = watermarkTs;
+        releaseUpToWatermark();
+    }
+
+    public void flush() {
+        while (size > 0) {
+            watermark = Math.max(watermark, times[0]);
+            releaseHead();
+        }
+    }
+
+    public long watermark() {
+        return watermark;
+    }
+
+    public int buffered() {
+        return size;
+    }
+
+    public long bufferedBytes() {
+        return bufferedBytes;
+    }
+
+    public long released() {
+        return released;
+    }
+
+    public long late() {
+        return late;
+    }
+
+    public long refused() {
+        return refused;
+    }
+
+    private void releaseUpToWatermark() {
+        while (size > 0 && times[0] <= watermark) {
+            releaseHead();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void releaseHead() {
+        long eventTs = times[0];
+        E event = (E) events[0];
+        bufferedBytes -= sizes[0];
+        size -= 1;
+        if (size > 0) {
+            move(size, 0);
+            siftDown(0);
+        }
+        events[size] = null;
+        released += 1;
+        sink.accept(eventTs, event);
+    }
+
+    private void push(long eventTs, int bytes, E event) {
+        if (size == times.length) {
+            int capacity = size * 2;
+            times = Arrays.copyOf(times, capacity);
+            arrivals = Arrays.copyOf(arrivals, capacity);
+            sizes = Arrays.copyOf(sizes, capacity);
+            events = Arrays.copyOf(events, capacity);
+        }
+        times[size] = eventTs;
+        arrivals[size] = arrival++;
+        sizes[size] = bytes;
+        events[size] = event;
+        bufferedBytes += bytes;
+        size += 1;
+        siftUp(size - 1);
+    }
+
+    private boolean before(int a, int b) {
+        return times[a] != times[b] ? times[a] < times[b] : arrivals[a] < arrivals[b];
+    }
+
+    private void siftUp(int at) {
+        while (at > 0) {
+            int parent = (at - 1) >>> 1;
+            if (!before(at, parent)) {
+                return;
+            }
+            swap(at, parent);
+            at = parent;
+        }
+    }
+
+    private void siftDown(int at) {
+        while (true) {
+            int child = 2 * at + 1;
+            if (child >= size) {
+                return;
+            }
+            if (child + 1 < size && before(child + 1, child)) {
+                child += 1;
+            }
+            if (!before(child, at)) {
+                return;
+            }
+            swap(at, child);
+            at = child;
+        }
+    }
+
+    private void swap(int a, int b) {
+        long time = times[a];
+        long order = arrivals[a];
+        int bytes = sizes[a];
+        Object event = events[a];
+        move(b, a);
+        times[b] = time;
+        arrivals[b] = order;
+        sizes[b] = bytes;
+        events[b] = event;
+    }
+
+    private void move(int from, int to) {
+        times[to] = times[from];
+        arrivals[to] = arrivals[from];
+        sizes[to] = sizes[from];
+        events[to] = events[from];
+    }
+}
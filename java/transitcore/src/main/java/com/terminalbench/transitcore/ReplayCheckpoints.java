@@ -0,0 +1,346 @@
+package com.terminalbench.transitcore;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Persisted {@link ResilienceReplay.ReplaySnapshot} checkpoints for one tenant, keyed by version.
+ *
+ * <p>The file mirrors a {@code capacity_snapshots} row: a header with the tenant id, then
+ * fixed-size {@code [version:8][inflight:8][backlog:8][applied:4][createdAtMs:8]} records in
+ * strictly increasing version order, so lookups are a binary search over record positions.
+ * Once more than twice {@code retained} checkpoints exist the file is rewritten with only the
+ * newest {@code retained}. A checkpoint recorded with a
+ * {@link ResilienceReplay.CheckpointableFilter} also gets a sidecar file holding that filter's
+ * state, written before the record itself, so a resumed replay dedups exactly like a full one.
+ * An {@link ResilienceReplay.IncrementalFilter} saved again after its last save or restore here
+ * writes only a delta naming the previous sidecar as its base, with a full state every
+ * {@code retained} deltas; restoring applies the chain oldest first, and compaction keeps every
+ * sidecar a retained checkpoint's chain still needs.
+ */
+public final class ReplayCheckpoints {
+    static final long MAGIC = 0x5443_434B_5054_3031L;
+    static final int RECORD_BYTES = 4 * Long.BYTES + Integer.BYTES;
+    static final byte FULL_STATE = 0;
+    static final byte DELTA_STATE = 1;
+    private static final String STATE_SUFFIX = ".dedup";
+    private static final long NO_BASE = Long.MIN_VALUE;
+
+    private final Path file;
+    private final String tenantId;
+    private final long interval;
+    private final int retained;
+    private final int headerBytes;
+    private long count;
+    private long lastVersion = Long.MIN_VALUE;
+    // The incremental filter last saved or restored here, and where its next delta starts from.
+    private ResilienceReplay.IncrementalFilter deltaFilter;
+    private long deltaBase;
+    private int deltaDepth;
+
+    public ReplayCheckpoints(Path file, String tenantId, long interval, int retained) throws IOException {
+        if (interval <= 0) {
+            throw new IllegalArgumentException("interval must be positive");
+        }
+        if (retained <= 0) {
+            throw new IllegalArgumentException("retained must be positive");
+        }
+        this.file = file;
+        this.tenantId = tenantId;
+        this.interval = interval;
+        this.retained = retained;
+        byte[] tenant = tenantId.getBytes(StandardCharsets.UTF_8);
+        this.headerBytes = Long.BYTES + Short.BYTES + tenant.length;
+        if (Files.exists(file) && Files.size(file) > 0) {
+            open(tenant);
+        } else {
+            rewrite(new byte[0]);
+        }
+    }
+
+    public String tenantId() {
+        return tenantId;
+    }
+
+    public long count() {
+        return count;
+    }
+
+    public long lastVersion() {
+        return lastVersion;
+    }
+
+    public boolean maybeRecord(ResilienceReplay.ReplaySnapshot snapshot) throws IOException {
+        if (count > 0 && snapshot.version() - lastVersion < interval) {
+            return false;
+        }
+        record(snapshot);
+        return true;
+    }
+
+    public boolean maybeRecord(ResilienceReplay.ReplaySnapshot snapshot, ResilienceReplay.CheckpointableFilter filter)
+            throws IOException {
+        if (count > 0 && snapshot.version() - lastVersion < interval) {
+            return false;
+        }
+        record(snapshot, filter);
+        return true;
+    }
+
+    public void record(ResilienceReplay.ReplaySnapshot snapshot, ResilienceReplay.CheckpointableFilter filter)
+            throws IOException {
+        checkIncreasing(snapshot);
+        ResilienceReplay.IncrementalFilter incremental = filter instanceof ResilienceReplay.IncrementalFilter f ? f : null;
+        boolean delta = incremental != null && incremental == deltaFilter && deltaDepth < retained
+                && Files.exists(statePath(deltaBase));
+        Path state = statePath(snapshot.version());
+        Path temp = state.resolveSibling(state.getFileName() + ".tmp");
+        try (OutputStream file = Files.newOutputStream(temp);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file))) {
+            if (delta) {
+                out.writeByte(DELTA_STATE);
+                out.writeLong(deltaBase);
+                incremental.writeDelta(out);
+            } else {
+                out.writeByte(FULL_STATE);
+                filter.writeState(out);
+            }
+            out.flush();
+        }
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        Files.move(temp, state, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        if (incremental != null) {
+            deltaFilter = incremental;
+            deltaBase = snapshot.version();
+            deltaDepth = delta ? deltaDepth + 1 : 0;
+        }
+        record(snapshot);
+    }
+
+    // Loads the filter state saved with the checkpoint at exactly this version, if its whole
+    // chain of sidecars is present; the filter is left untouched otherwise.
+    public boolean restoreFilter(long version, ResilienceReplay.CheckpointableFilter filter) throws IOException {
+        List<Path> chain = new ArrayList<>();
+        for (long at = version; ; ) {
+            Path state = statePath(at);
+            if (!Files.exists(state)) {
+                return false;
+            }
+            chain.add(state);
+            long base = baseOf(state);
+            if (base == NO_BASE) {
+                break;
+            }
+            if (!(filter instanceof ResilienceReplay.IncrementalFilter)) {
+                return false;
+            }
+            at = base;
+        }
+        for (int i = chain.size() - 1; i >= 0; i--) {
+            try (InputStream file = Files.newInputStream(chain.get(i));
+                 DataInputStream in = new DataInputStream(new BufferedInputStream(file))) {
+                if (in.readByte() == DELTA_STATE) {
+                    in.readLong();
+                    ((ResilienceReplay.IncrementalFilter) filter).readDelta(in);
+                } else {
+                    filter.readState(in);
+                }
+            }
+        }
+        if (filter instanceof ResilienceReplay.IncrementalFilter incremental) {
+            deltaFilter = incremental;
+            deltaBase = version;
+            deltaDepth = chain.size() - 1;
+        }
+        return true;
+    }
+
+    public Path statePath(long version) {
+        return file.resolveSibling(String.format("%s.%020d%s", file.getFileName(), version, STATE_SUFFIX));
+    }
+
+    private static long baseOf(Path state) throws IOException {
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(state))) {
+            return in.readByte() == DELTA_STATE ? in.readLong() : NO_BASE;
+        }
+    }
+
+    public void record(ResilienceReplay.ReplaySnapshot snapshot) throws IOException {
+        checkIncreasing(snapshot);
+        ByteBuffer record = ByteBuffer.allocate(RECORD_BYTES)
+                .putLong(snapshot.version())
+                .putLong(snapshot.inflight())
+                .putLong(snapshot.backlog())
+                .putInt(snapshot.applied())
+                .putLong(System.currentTimeMillis())
+                .flip();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            long at = headerBytes + count * RECORD_BYTES;
+            while (record.hasRemaining()) {
+                at += channel.write(record, at);
+            }
+            channel.force(false);
+        }
+        count += 1;
+        lastVersion = snapshot.version();
+        if (count > 2L * retained) {
+            compact(retained);
+        }
+    }
+
+    public ResilienceReplay.ReplaySnapshot nearestAtOrBelow(long version) throws IOException {
+        if (count == 0) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer record = ByteBuffer.allocate(RECORD_BYTES);
+            long lo = 0;
+            long hi = count - 1;
+            long found = -1;
+            while (lo <= hi) {
+                long mid = (lo + hi) >>> 1;
+                read(channel, mid, record);
+                if (record.getLong(0) <= version) {
+                    found = mid;
+                    lo = mid + 1;
+                } else {
+                    hi = mid - 1;
+                }
+            }
+            if (found < 0) {
+                return null;
+            }
+            read(channel, found, record);
+            return new ResilienceReplay.ReplaySnapshot(
+                    record.getLong(Long.BYTES), record.getLong(2 * Long.BYTES), record.getLong(0), record.getInt(3 * Long.BYTES));
+        }
+    }
+
+    public void compact(int keep) throws IOException {
+        if (keep <= 0) {
+            throw new IllegalArgumentException("keep must be positive");
+        }
+        if (count <= keep) {
+            return;
+        }
+        byte[] tail = new byte[keep * RECORD_BYTES];
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.wrap(tail);
+            long at = headerBytes + (count - keep) * RECORD_BYTES;
+            while (buffer.hasRemaining()) {
+                at += channel.read(buffer, at);
+            }
+        }
+        rewrite(tail);
+        count = keep;
+        deleteUnreferencedStates(ByteBuffer.wrap(tail));
+    }
+
+    // A dropped checkpoint's sidecar survives while a retained checkpoint's delta chain runs through it.
+    private void deleteUnreferencedStates(ByteBuffer retainedRecords) throws IOException {
+        Set<String> needed = new HashSet<>();
+        for (int at = 0; at < retainedRecords.limit(); at += RECORD_BYTES) {
+            Path state = statePath(retainedRecords.getLong(at));
+            while (Files.exists(state) && needed.add(state.getFileName().toString())) {
+                long base = baseOf(state);
+                if (base == NO_BASE) {
+                    break;
+                }
+                state = statePath(base);
+            }
+        }
+        String prefix = file.getFileName() + ".";
+        try (DirectoryStream<Path> states = Files.newDirectoryStream(file.toAbsolutePath().getParent(), candidate -> {
+            String name = candidate.getFileName().toString();
+            return name.startsWith(prefix) && name.endsWith(STATE_SUFFIX);
+        })) {
+            for (Path state : states) {
+                if (!needed.contains(state.getFileName().toString())) {
+                    Files.deleteIfExists(state);
+                }
+            }
+        }
+    }
+
+    private void checkIncreasing(ResilienceReplay.ReplaySnapshot snapshot) {
+        if (count > 0 && snapshot.version() <= lastVersion) {
+            throw new IllegalArgumentException("checkpoint versions must increase: " + snapshot.version() + " <= " + lastVersion);
+        }
+    }
+
+    private void open(byte[] tenant) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(headerBytes);
+            channel.read(header, 0);
+            header.flip();
+            if (header.remaining() < headerBytes || header.getLong() != MAGIC) {
+                throw new IOException("not a checkpoint file");
+            }
+            byte[] stored = new byte[header.getShort()];
+            if (stored.length != tenant.length) {
+                throw new IOException("checkpoint file belongs to another tenant");
+            }
+            header.get(stored);
+            if (!tenantId.equals(new String(stored, StandardCharsets.UTF_8))) {
+                throw new IOException("checkpoint file belongs to another tenant");
+            }
+            count = (channel.size() - headerBytes) / RECORD_BYTES;
+            if (count > 0) {
+                ByteBuffer last = ByteBuffer.allocate(RECORD_BYTES);
+                read(channel, count - 1, last);
+                lastVersion = last.getLong(0);
+            }
+        }
+    }
+
+    // Compaction writes a sibling file and renames it over the original, so a crash leaves
+    // either the old or the new checkpoint set, never a mix.
+    private void rewrite(byte[] records) throws IOException {
+        byte[] tenant = tenantId.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer content = ByteBuffer.allocate(headerBytes + records.length)
+                .putLong(MAGIC)
+                .putShort((short) tenant.length)
+                .put(tenant)
+                .put(records)
+                .flip();
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (content.hasRemaining()) {
+                channel.write(content);
+            }
+            channel.force(true);
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void read(FileChannel channel, long index, ByteBuffer record) throws IOException {
+        record.clear();
+        long at = headerBytes + index * RECORD_BYTES;
+        while (record.hasRemaining()) {
+            int read = channel.read(record, at + record.position());
+            if (read < 0) {
+                throw new IOException("truncated checkpoint file");
+            }
+        }
+    }
+}
@@ -0,0 +1,317 @@
+package com.terminalbench.transitcore;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Version-ordered, append-only file of {@link ResilienceReplay.ReplayEvent}s.
+ *
+ * <p>Layout: an 8-byte magic header followed by records of
+ * {@code [version:8][inflightDelta:8][backlogDelta:8][keyLength:4][key:UTF-8]}. Every
+ * {@link #INDEX_STRIDE}th record also gets a {@code [version:8][position:8]} entry in a sidecar
+ * {@code .idx} file, so readers can seek to a version offset without scanning the log. Readers
+ * map the file in bounded windows, so heap use does not grow with the log size.
+ */
+public final class ReplayLog {
+    static final long MAGIC = 0x5443_5250_4C4F_4731L;
+    static final int HEADER_BYTES = Long.BYTES;
+    static final int RECORD_FIXED_BYTES = 3 * Long.BYTES + Integer.BYTES;
+    static final int INDEX_STRIDE = 1_024;
+    static final int INDEX_ENTRY_BYTES = 2 * Long.BYTES;
+    static final int MAX_KEY_BYTES = 1 << 16;
+    private static final long WINDOW_BYTES = 64L << 20;
+
+    private ReplayLog() {}
+
+    @FunctionalInterface
+    public interface EventSink {
+        void accept(ResilienceReplay.ReplayEvent event) throws IOException;
+    }
+
+    public static Path indexPath(Path log) {
+        return log.resolveSibling(log.getFileName() + ".idx");
+    }
+
+    public static Writer openWriter(Path log) throws IOException {
+        return new Writer(log);
+    }
+
+    public static Reader openReader(Path log, long fromVersion) throws IOException {
+        return new Reader(log, fromVersion);
+    }
+
+    private static void closeAfter(Throwable failure, FileChannel... channels) {
+        for (FileChannel channel : channels) {
+            if (channel == null) {
+                continue;
+            }
+            try {
+                channel.close();
+            } catch (IOException e) {
+                failure.addSuppressed(e);
+            }
+        }
+    }
+
+    public static final class Writer implements AutoCloseable {
+        private final FileChannel channel;
+        private final FileChannel index;
+        private final ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+        private long position;
+        private long records;
+        private long lastVersion = Long.MIN_VALUE;
+
+        // The header is checked before the index is created, so opening a foreign file leaves
+        // no .idx behind; any failure closes whatever was opened.
+        private Writer(Path log) throws IOException {
+            FileChannel opened = FileChannel.open(log, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            FileChannel openedIndex = null;
+            try {
+                boolean fresh = opened.size() == 0;
+                if (!fresh) {
+                    ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+                    opened.read(header, 0);
+                    if (header.position() < HEADER_BYTES || header.getLong(0) != MAGIC) {
+                        throw new IOException("not a replay log");
+                    }
+                }
+                openedIndex = FileChannel.open(indexPath(log), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                this.channel = opened;
+                this.index = openedIndex;
+                if (fresh) {
+                    ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).putLong(0, MAGIC);
+                    channel.write(header, 0);
+                    index.truncate(0);
+                    position = HEADER_BYTES;
+                } else {
+                    recover();
+                }
+            } catch (Throwable failure) {
+                closeAfter(failure, opened, openedIndex);
+                throw failure;
+            }
+        }
+
+        public void append(ResilienceReplay.ReplayEvent event) throws IOException {
+            if (event.version() < lastVersion) {
+                throw new IllegalArgumentException("replay log is version-ordered: " + event.version() + " < " + lastVersion);
+            }
+            byte[] key = event.idempotencyKey().getBytes(StandardCharsets.UTF_8);
+            if (key.length > MAX_KEY_BYTES) {
+                throw new IllegalArgumentException("idempotency key too long");
+            }
+            int size = RECORD_FIXED_BYTES + key.length;
+            if (buffer.remaining() < size) {
+                drain();
+            }
+            if (records % INDEX_STRIDE == 0) {
+                drain();
+                ByteBuffer entry = ByteBuffer.allocate(INDEX_ENTRY_BYTES).putLong(event.version()).putLong(position).flip();
+                index.write(entry, index.size());
+            }
+            ByteBuffer target = size > buffer.capacity() ? ByteBuffer.allocate(size) : buffer;
+            target.putLong(event.version())
+                    .putLong(event.inflightDelta())
+                    .putLong(event.backlogDelta())
+                    .putInt(key.length)
+                    .put(key);
+            if (target != buffer) {
+                channel.write(target.flip(), position);
+            }
+            position += size;
+            records += 1;
+            lastVersion = event.version();
+        }
+
+        public long records() {
+            return records;
+        }
+
+        public long lastVersion() {
+            return lastVersion;
+        }
+
+        public void sync() throws IOException {
+            drain();
+            channel.force(false);
+            index.force(false);
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                sync();
+            } finally {
+                channel.close();
+                index.close();
+            }
+        }
+
+        private void drain() throws IOException {
+            buffer.flip();
+            long at = position - buffer.remaining();
+            while (buffer.hasRemaining()) {
+                at += channel.write(buffer, at);
+            }
+            buffer.clear();
+        }
+
+        // Reopening resumes after the last complete record; a torn tail from a crash is cut off.
+        private void recover() throws IOException {
+            // Scan from the second-to-last indexed record: the last one may itself be the torn
+            // record, and lastVersion must come from a complete record before it.
+            long indexEntries = index.size() / INDEX_ENTRY_BYTES;
+            long scanFrom = HEADER_BYTES;
+            if (indexEntries > 1) {
+                ByteBuffer entry = ByteBuffer.allocate(INDEX_ENTRY_BYTES);
+                index.read(entry, (indexEntries - 2) * INDEX_ENTRY_BYTES);
+                scanFrom = entry.getLong(Long.BYTES);
+                records = (indexEntries - 2) * INDEX_STRIDE;
+            }
+            ByteBuffer fixed = ByteBuffer.allocate(RECORD_FIXED_BYTES);
+            long size = channel.size();
+            long at = scanFrom;
+            while (at + RECORD_FIXED_BYTES <= size) {
+                fixed.clear();
+                channel.read(fixed, at);
+                int keyLength = fixed.getInt(3 * Long.BYTES);
+                if (keyLength < 0 || keyLength > MAX_KEY_BYTES || at + RECORD_FIXED_BYTES + keyLength > size) {
+                    break;
+                }
+                lastVersion = fixed.getLong(0);
+                records += 1;
+                at += RECORD_FIXED_BYTES + keyLength;
+            }
+            channel.truncate(at);
+            index.truncate(((records + INDEX_STRIDE - 1) / INDEX_STRIDE) * INDEX_ENTRY_BYTES);
+            position = at;
+        }
+    }
+
+    public static final class Reader implements AutoCloseable {
+        private final FileChannel channel;
+        private final long size;
+        private long position;
+        private long windowStart;
+        private MappedByteBuffer window;
+
+        private Reader(Path log, long fromVersion) throws IOException {
+            this.channel = FileChannel.open(log, StandardOpenOption.READ);
+            try {
+                this.size = channel.size();
+                if (size < HEADER_BYTES || map(0, HEADER_BYTES).getLong(0) != MAGIC) {
+                    throw new IOException("not a replay log");
+                }
+                this.position = seek(indexPath(log), fromVersion);
+            } catch (Throwable failure) {
+                closeAfter(failure, channel);
+                throw failure;
+            }
+        }
+
+        // Events come out in the same (version, key) order ResilienceReplay.replay sorts into.
+        // The log is only version-ordered, so each run of equal versions is sorted by key
+        // before it is handed on; only that run is held on the heap.
+        public void forEachOrdered(EventSink action) throws IOException {
+            forEachOrdered(Long.MAX_VALUE, action);
+        }
+
+        public void forEachOrdered(long untilVersion, EventSink action) throws IOException {
+            List<ResilienceReplay.ReplayEvent> run = new ArrayList<>();
+            ResilienceReplay.ReplayEvent event;
+            while ((event = next()) != null && event.version() <= untilVersion) {
+                if (!run.isEmpty() && run.get(0).version() != event.version()) {
+                    emit(run, action);
+                }
+                run.add(event);
+            }
+            emit(run, action);
+        }
+
+        public ResilienceReplay.ReplayEvent next() throws IOException {
+            if (position + RECORD_FIXED_BYTES > size) {
+                return null;
+            }
+            ensure(RECORD_FIXED_BYTES);
+            int offset = (int) (position - windowStart);
+            int keyLength = window.getInt(offset + 3 * Long.BYTES);
+            if (keyLength < 0 || keyLength > MAX_KEY_BYTES || position + RECORD_FIXED_BYTES + keyLength > size) {
+                return null;
+            }
+            ensure(RECORD_FIXED_BYTES + keyLength);
+            offset = (int) (position - windowStart);
+            long version = window.getLong(offset);
+            long inflightDelta = window.getLong(offset + Long.BYTES);
+            long backlogDelta = window.getLong(offset + 2 * Long.BYTES);
+            byte[] key = new byte[keyLength];
+            window.get(offset + RECORD_FIXED_BYTES, key);
+            position += RECORD_FIXED_BYTES + keyLength;
+            return new ResilienceReplay.ReplayEvent(version, new String(key, StandardCharsets.UTF_8), inflightDelta, backlogDelta);
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+
+        private static void emit(List<ResilienceReplay.ReplayEvent> run, EventSink action) throws IOException {
+            run.sort(ResilienceReplay.REPLAY_ORDER);
+            for (ResilienceReplay.ReplayEvent event : run) {
+                action.accept(event);
+            }
+            run.clear();
+        }
+
+        // Start from the last indexed record strictly below fromVersion; the replay fold drops
+        // anything at or below its current version, so landing early is harmless.
+        private long seek(Path indexFile, long fromVersion) throws IOException {
+            if (!Files.exists(indexFile)) {
+                return HEADER_BYTES;
+            }
+            try (FileChannel index = FileChannel.open(indexFile, StandardOpenOption.READ)) {
+                long entries = index.size() / INDEX_ENTRY_BYTES;
+                if (entries == 0) {
+                    return HEADER_BYTES;
+                }
+                MappedByteBuffer entriesBuffer = index.map(FileChannel.MapMode.READ_ONLY, 0, entries * INDEX_ENTRY_BYTES);
+                long lo = 0;
+                long hi = entries - 1;
+                long found = -1;
+                while (lo <= hi) {
+                    long mid = (lo + hi) >>> 1;
+                    if (entriesBuffer.getLong((int) (mid * INDEX_ENTRY_BYTES)) < fromVersion) {
+                        found = mid;
+                        lo = mid + 1;
+                    } else {
+                        hi = mid - 1;
+                    }
+                }
+                if (found < 0) {
+                    return HEADER_BYTES;
+                }
+                long at = entriesBuffer.getLong((int) (found * INDEX_ENTRY_BYTES + Long.BYTES));
+                return at <= size ? at : HEADER_BYTES;
+            }
+        }
+
+        private void ensure(int bytes) throws IOException {
+            if (window == null || position < windowStart || position + bytes > windowStart + window.limit()) {
+                long length = Math.min(size - position, Math.max(WINDOW_BYTES, bytes));
+                window = map(position, length);
+                windowStart = position;
+            }
+        }
+
+        private MappedByteBuffer map(long from, long length) throws IOException {
+            return channel.map(FileChannel.MapMode.READ_ONLY, from, length);
+        }
+    }
+}
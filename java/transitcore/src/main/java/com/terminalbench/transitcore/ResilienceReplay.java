@@ -1,6 +1,12 @@
 package com.terminalbench.transitcore;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Comparator;
 import java.util.HashSet;
 import java.util.List;
@@ -10,6 +16,30 @@ public final class ResilienceReplay {
     public record ReplayEvent(long version, String idempotencyKey, long inflightDelta, long backlogDelta) {}
     public record ReplaySnapshot(long inflight, long backlog, long version, int applied) {}
 
+    @FunctionalInterface
+    public interface IdempotencyFilter {
+        boolean firstSeen(String key, long version);
+    }
+
+    /** A filter whose whole state can be saved next to a checkpoint and loaded back on resume. */
+    public interface CheckpointableFilter extends IdempotencyFilter {
+        void writeState(DataOutput out) throws IOException;
+
+        // Replaces the current state with the saved one.
+        void readState(DataInput in) throws IOException;
+    }
+
+    /**
+     * A checkpointable filter that can also save just what changed since its last save or
+     * restore, so checkpoints of an ever-growing state do not rewrite all of it each time.
+     */
+    public interface IncrementalFilter extends CheckpointableFilter {
+        void writeDelta(DataOutput out) throws IOException;
+
+        // Applies a saved delta on top of the current state.
+        void readDelta(DataInput in) throws IOException;
+    }
+
     public int retryBackoffMs(int attempt, int baseMs) {
         
         
@@ -25,32 +55,182 @@ public final class ResilienceReplay {
         return recentFailures > 5;
     }
 
+    static final Comparator<ReplayEvent> REPLAY_ORDER = Comparator
+            .comparingLong(ReplayEvent::version)
+            .thenComparing(ReplayEvent::idempotencyKey);
+
     public ReplaySnapshot replay(long baseInflight, long baseBacklog, long currentVersion, List<ReplayEvent> events) {
-        List<ReplayEvent> ordered = new ArrayList<>(events);
-        ordered.sort(Comparator
-                .comparingLong(ReplayEvent::version)
-                .thenComparing(ReplayEvent::idempotencyKey));
+        return replay(baseInflight, baseBacklog, currentVersion, events, exactFilter());
+    }
 
-        long inflight = baseInflight;
-        long backlog = baseBacklog;
-        long version = currentVersion;
-        int applied = 0;
-        Set<String> seen = new HashSet<>();
+    public ReplaySnapshot replay(long baseInflight, long baseBacklog, long currentVersion, List<ReplayEvent> events,
+                                 IdempotencyFilter filter) {
+        List<ReplayEvent> ordered = new ArrayList<>(events);
+        ordered.sort(REPLAY_ORDER);
 
+        ReplayFold fold = new ReplayFold(baseInflight, baseBacklog, currentVersion, filter);
         for (ReplayEvent event : ordered) {
+            fold.apply(event);
+        }
+        return fold.snapshot();
+    }
+
+    public ReplaySnapshot replay(long baseInflight, long baseBacklog, long currentVersion, Path log) throws IOException {
+        return replay(baseInflight, baseBacklog, currentVersion, log, exactFilter());
+    }
+
+    public ReplaySnapshot replay(long baseInflight, long baseBacklog, long currentVersion, Path log,
+                                 IdempotencyFilter filter) throws IOException {
+        ReplayFold fold = new ReplayFold(baseInflight, baseBacklog, currentVersion, filter);
+        try (ReplayLog.Reader reader = ReplayLog.openReader(log, currentVersion)) {
+            reader.forEachOrdered(fold::apply);
+        }
+        return fold.snapshot();
+    }
+
+    public ReplaySnapshot replayFromCheckpoint(long baseInflight, long baseBacklog, long baseVersion, long targetVersion,
+                                               Path log, ReplayCheckpoints checkpoints) throws IOException {
+        return replayFromCheckpoint(baseInflight, baseBacklog, baseVersion, targetVersion, log, checkpoints, exactFilter());
+    }
+
+    // Starts from the newest checkpoint at or below targetVersion whose filter state can be
+    // restored, walking back past any without one, and folds only the tail of the log.
+    // Checkpoints are only taken where every event up to the snapshot's version has been
+    // consumed, so the saved filter state matches the snapshot exactly; with no usable checkpoint
+    // it starts from the base.
+    public ReplaySnapshot replayFromCheckpoint(long baseInflight, long baseBacklog, long baseVersion, long targetVersion,
+                                               Path log, ReplayCheckpoints checkpoints, CheckpointableFilter filter)
+            throws IOException {
+        ReplaySnapshot start = checkpoints.nearestAtOrBelow(targetVersion);
+        while (start != null && start.version() >= baseVersion && !checkpoints.restoreFilter(start.version(), filter)) {
+            start = checkpoints.nearestAtOrBelow(start.version() - 1);
+        }
+        if (start == null || start.version() < baseVersion) {
+            start = new ReplaySnapshot(baseInflight, baseBacklog, baseVersion, 0);
+        }
+        ReplayFold fold = new ReplayFold(start, filter);
+        long[] consumed = {start.version()};
+        try (ReplayLog.Reader reader = ReplayLog.openReader(log, start.version())) {
+            reader.forEachOrdered(targetVersion, event -> {
+                if (event.version() > consumed[0]) {
+                    if (consumed[0] == fold.version()) {
+                        checkpoints.maybeRecord(fold.snapshot(), filter);
+                    }
+                    consumed[0] = event.version();
+                }
+                fold.apply(event);
+            });
+        }
+        ReplaySnapshot result = fold.snapshot();
+        if (consumed[0] == result.version()) {
+            checkpoints.maybeRecord(result, filter);
+        }
+        return result;
+    }
+
+    static CheckpointableFilter exactFilter() {
+        return new ExactFilter();
+    }
+
+    // Keys added since the last save are only tracked once the filter has been saved or restored,
+    // so a plain replay pays nothing for checkpoint support.
+    static final class ExactFilter implements IncrementalFilter {
+        private final Set<String> seen = new HashSet<>();
+        private final List<String> unsaved = new ArrayList<>();
+        private boolean tracking;
+
+        @Override
+        public boolean firstSeen(String key, long version) {
+            if (!seen.add(key)) {
+                return false;
+            }
+            if (tracking) {
+                unsaved.add(key);
+            }
+            return true;
+        }
+
+        @Override
+        public void writeState(DataOutput out) throws IOException {
+            writeKeys(out, seen);
+            unsaved.clear();
+            tracking = true;
+        }
+
+        @Override
+        public void writeDelta(DataOutput out) throws IOException {
+            writeKeys(out, unsaved);
+            unsaved.clear();
+            tracking = true;
+        }
+
+        @Override
+        public void readState(DataInput in) throws IOException {
+            seen.clear();
+            readDelta(in);
+        }
+
+        @Override
+        public void readDelta(DataInput in) throws IOException {
+            for (int i = in.readInt(); i > 0; i--) {
+                byte[] bytes = new byte[in.readInt()];
+                in.readFully(bytes);
+                seen.add(new String(bytes, StandardCharsets.UTF_8));
+            }
+            unsaved.clear();
+            tracking = true;
+        }
+
+        private static void writeKeys(DataOutput out, Collection<String> keys) throws IOException {
+            out.writeInt(keys.size());
+            for (String key : keys) {
+                byte[] bytes = key.getBytes(StandardCharsets.UTF_8);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+        }
+    }
+
+    static final class ReplayFold {
+        private final IdempotencyFilter filter;
+        private long inflight;
+        private long backlog;
+        private long version;
+        private int applied;
+
+        ReplayFold(long baseInflight, long baseBacklog, long currentVersion, IdempotencyFilter filter) {
+            this.inflight = baseInflight;
+            this.backlog = baseBacklog;
+            this.version = currentVersion;
+            this.filter = filter;
+        }
+
+        ReplayFold(ReplaySnapshot from, IdempotencyFilter filter) {
+            this(from.inflight(), from.backlog(), from.version(), filter);
+            this.applied = from.applied();
+        }
+
+        long version() {
+            return version;
+        }
+
+        boolean apply(ReplayEvent event) {
             
             if (event.version() <= version) {
-                continue;
+                return false;
             }
-            if (!seen.add(event.idempotencyKey())) {
-                continue;
+            if (!filter.firstSeen(event.idempotencyKey(), event.version())) {
+                return false;
             }
             inflight += event.backlogDelta();
             backlog += event.inflightDelta();
             version = event.version();
             applied += 1;
+            return true;
         }
 
-        return new ReplaySnapshot(inflight, backlog, version, applied);
+        ReplaySnapshot snapshot() {
+            return new ReplaySnapshot(inflight, backlog, version, applied);
+        }
     }
 }
@@ -0,0 +1,165 @@
+package com.terminalbench.transitcore;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.random.RandomGenerator;
+
+/**
+ * Shared retry budget: each successful call deposits {@code retryRatio} of a token into its
+ * tenant's bucket and the global bucket, and a retry must withdraw one whole token from both.
+ * Over any stretch of time retries are thus bounded by {@code retryRatio} times the successes
+ * plus the bucket depth, however many callers fail at once.
+ *
+ * <p>Buckets hold milli-tokens split over padded stripes; a thread deposits into and withdraws
+ * from the stripe its id hashes to, falling back to the others only when its own is full or
+ * empty, so concurrent callers rarely touch the same cache line. Backoff uses decorrelated
+ * jitter ({@code min(cap, random(base, 3 * previous))}) instead of the lockstep powers of two of
+ * {@link RetryBudget#backoffMs}.
+ */
+public final class RetryTokenBudget {
+    static final long MILLI = 1_000;
+    private static final int TENANT_STRIPES = 2;
+
+    private final long depositMillis;
+    private final long tenantCapacityMillis;
+    private final long baseMs;
+    private final long capMs;
+    private final StripedBucket global;
+    private final ConcurrentHashMap<String, StripedBucket> tenants = new ConcurrentHashMap<>();
+
+    public RetryTokenBudget(double retryRatio, int tenantTokens, int globalTokens, long baseMs, long capMs) {
+        if (retryRatio <= 0 || retryRatio > 1) {
+            throw new IllegalArgumentException("retryRatio must be in (0, 1]");
+        }
+        if (tenantTokens <= 0 || globalTokens <= 0) {
+            throw new IllegalArgumentException("token capacities must be positive");
+        }
+        if (baseMs <= 0 || capMs < baseMs) {
+            throw new IllegalArgumentException("backoff must satisfy 0 < base <= cap");
+        }
+        this.depositMillis = Math.max(1, Math.round(retryRatio * MILLI));
+        this.tenantCapacityMillis = tenantTokens * MILLI;
+        this.baseMs = baseMs;
+        this.capMs = capMs;
+        int stripes = Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors()) * 2 - 1) << 1;
+        this.global = new StripedBucket(stripes, globalTokens * MILLI);
+    }
+
+    public void onSuccess(String tenantId) {
+        tenant(tenantId).deposit(depositMillis);
+        global.deposit(depositMillis);
+    }
+
+    public boolean tryRetry(String tenantId) {
+        StripedBucket tenant = tenant(tenantId);
+        if (!tenant.withdraw(MILLI)) {
+            return false;
+        }
+        if (!global.withdraw(MILLI)) {
+            tenant.deposit(MILLI);
+            return false;
+        }
+        return true;
+    }
+
+    public double tokens(String tenantId) {
+        StripedBucket tenant = tenants.get(tenantId);
+        return (tenant == null ? tenantCapacityMillis : tenant.balance()) / (double) MILLI;
+    }
+
+    public double globalTokens() {
+        return global.balance() / (double) MILLI;
+    }
+
+    public long backoffMs(long previousMs) {
+        return decorrelatedJitter(baseMs, capMs, previousMs, ThreadLocalRandom.current());
+    }
+
+    static long decorrelatedJitter(long baseMs, long capMs, long previousMs, RandomGenerator random) {
+        long upper = Math.max(baseMs, Math.min(capMs, 3 * Math.max(previousMs, baseMs)));
+        return upper == baseMs ? baseMs : random.nextLong(baseMs, upper + 1);
+    }
+
+    private StripedBucket tenant(String tenantId) {
+        StripedBucket bucket = tenants.get(tenantId);
+        return bucket != null ? bucket : tenants.computeIfAbsent(tenantId,
+                ignored -> new StripedBucket(TENANT_STRIPES, tenantCapacityMillis));
+    }
+
+    // Stripes sit PAD longs apart so neighbouring stripes never share a cache line. Small buckets
+    // get fewer stripes so each still holds a whole token; when no single stripe can cover a
+    // withdrawal, the slow path gathers fractions across stripes and puts them back on failure.
+    static final class StripedBucket {
+        private static final int PAD = 8;
+
+        private final AtomicLongArray cells;
+        private final int mask;
+        private final long stripeCapacity;
+
+        StripedBucket(int stripes, long capacity) {
+            stripes = Integer.highestOneBit((int) Math.min(stripes, Math.max(1, capacity / MILLI)));
+            this.cells = new AtomicLongArray(stripes * PAD);
+            this.mask = stripes - 1;
+            this.stripeCapacity = Math.max(1, capacity / stripes);
+            for (int i = 0; i < stripes; i++) {
+                cells.set(i * PAD, stripeCapacity);
+            }
+        }
+
+        void deposit(long amount) {
+            int home = home();
+            for (int probe = 0; probe <= mask && amount > 0; probe++) {
+                int cell = ((home + probe) & mask) * PAD;
+                long current;
+                long next;
+                do {
+                    current = cells.get(cell);
+                    next = Math.min(stripeCapacity, current + amount);
+                } while (next != current && !cells.compareAndSet(cell, current, next));
+                amount -= next - current;
+            }
+        }
+
+        boolean withdraw(long amount) {
+            int home = home();
+            for (int probe = 0; probe <= mask; probe++) {
+                int cell = ((home + probe) & mask) * PAD;
+                long current;
+                while ((current = cells.get(cell)) >= amount) {
+                    if (cells.compareAndSet(cell, current, current - amount)) {
+                        return true;
+                    }
+                }
+            }
+            long gathered = 0;
+            for (int probe = 0; probe <= mask && gathered < amount; probe++) {
+                int cell = ((home + probe) & mask) * PAD;
+                long current;
+                long taken;
+                do {
+                    current = cells.get(cell);
+                    taken = Math.min(current, amount - gathered);
+                } while (taken > 0 && !cells.compareAndSet(cell, current, current - taken));
+                gathered += taken;
+            }
+            if (gathered < amount) {
+                deposit(gathered);
+                return false;
+            }
+            return true;
+        }
+
+        long balance() {
+            long sum = 0;
+            for (int i = 0; i <= mask; i++) {
+                sum += cells.get(i * PAD);
+            }
+            return sum;
+        }
+
+        private int home() {
+            return (int) IdempotencyIndex.mix(Thread.currentThread().threadId()) & mask;
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.terminalbench.transitcore;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Stateful counterpart of {@link DispatchPlanner#chooseRoute}: an indexed binary min-heap over
+ * (travel minutes, route name), so a travel-time change costs O(log n) instead of a full scan.
+ *
+ * <p>Only one thread may call {@link #update} and {@link #remove}. After every mutation the
+ * writer publishes the heap top as an immutable {@link Choice} through a volatile field, so any
+ * number of readers get the current best route in O(1) without touching the heap.
+ */
+public final class RouteSelector {
+    public record Choice(String route, int minutes) {}
+
+    public static final String UNASSIGNED = "unassigned";
+
+    private final Map<String, Integer> positions;
+    private String[] routes;
+    private int[] minutes;
+    private int size;
+    private volatile Choice best;
+    private volatile int published;
+
+    public RouteSelector() {
+        this(Map.of());
+    }
+
+    public RouteSelector(Map<String, Integer> travelMinutesByRoute) {
+        int capacity = Math.max(16, travelMinutesByRoute.size());
+        this.positions = new HashMap<>(capacity * 2);
+        this.routes = new String[capacity];
+        this.minutes = new int[capacity];
+        for (Map.Entry<String, Integer> entry : travelMinutesByRoute.entrySet()) {
+            routes[size] = entry.getKey();
+            minutes[size] = entry.getValue();
+            positions.put(entry.getKey(), size);
+            size += 1;
+        }
+        for (int i = size / 2 - 1; i >= 0; i--) {
+            siftDown(i);
+        }
+        publish();
+    }
+
+    public String best() {
+        Choice choice = best;
+        return choice == null ? UNASSIGNED : choice.route();
+    }
+
+    public Choice bestChoice() {
+        return best;
+    }
+
+    public int size() {
+        return published;
+    }
+
+    public void update(String route, int travelMinutes) {
+        Integer at = positions.get(route);
+        if (at == null) {
+            if (size == routes.length) {
+                routes = Arrays.copyOf(routes, size * 2);
+                minutes = Arrays.copyOf(minutes, size * 2);
+            }
+            routes[size] = route;
+            minutes[size] = travelMinutes;
+            positions.put(route, size);
+            size += 1;
+            siftUp(size - 1);
+        } else {
+            int previous = minutes[at];
+            minutes[at] = travelMinutes;
+            if (travelMinutes < previous) {
+                siftUp(at);
+            } else if (travelMinutes > previous) {
+                siftDown(at);
+            }
+        }
+        publish();
+    }
+
+    public boolean remove(String route) {
+        Integer at = positions.remove(route);
+        if (at == null) {
+            return false;
+        }
+        size -= 1;
+        if (at != size) {
+            String moved = routes[size];
+            move(size, at);
+            siftDown(at);
+            siftUp(positions.get(moved));
+        }
+        routes[size] = null;
+        publish();
+        return true;
+    }
+
+    private void publish() {
+        Choice current = best;
+        if (size == 0) {
+            best = null;
+        } else if (current == null || !current.route().equals(routes[0]) || current.minutes() != minutes[0]) {
+            best = new Choice(routes[0], minutes[0]);
+        }
+        published = size;
+    }
+
+    // Same order chooseRoute intends: fewest minutes first, then the lexically smallest route.
+    private boolean before(int a, int b) {
+        return minutes[a] != minutes[b] ? minutes[a] < minutes[b] : routes[a].compareTo(routes[b]) < 0;
+    }
+
+    private void siftUp(int at) {
+        while (at > 0) {
+            int parent = (at - 1) >>> 1;
+            if (!before(at, parent)) {
+                return;
+            }
+            swap(at, parent);
+            at = parent;
+        }
+    }
+
+    private void siftDown(int at) {
+        while (true) {
+            int child = 2 * at + 1;
+            if (child >= size) {
+                return;
+            }
+            if (child + 1 < size && before(child + 1, child)) {
+                child += 1;
+            }
+            if (!before(child, at)) {
+                return;
+            }
+            swap(at, child);
+            at = child;
+        }
+    }
+
+    private void swap(int a, int b) {
+        String route = routes[a];
+        int travel = minutes[a];
+        routes[a] = routes[b];
+        minutes[a] = minutes[b];
+        routes[b] = route;
+        minutes[b] = travel;
+        positions.put(routes[a], a);
+        positions.put(routes[b], b);
+    }
+
+    private void move(int from, int to) {
+        routes[to] = routes[from];
+        minutes[to] = minutes[from];
+        positions.put(routes[to], to);
+    }
+}
@@ -10,6 +10,10 @@ public final class SecurityPolicy {
             "admin", Set.of("read", "submit", "approve", "override")
     );
 
+    static Map<String, Set<String>> roleActions() {
+        return ROLE_ACTIONS;
+    }
+
     public boolean allowed(String role, String action) {
         return ROLE_ACTIONS.getOrDefault(role, Set.of()).contains(action);
     }
@@ -1,25 +1,43 @@
 package com.terminalbench.transitcore;
 
 public final class SlaModel {
+    public static final byte SEVERITY_NONE = 0;
+    public static final byte SEVERITY_MINOR = 1;
+    public static final byte SEVERITY_MAJOR = 2;
+    public static final byte SEVERITY_CRITICAL = 3;
+    private static final String[] SEVERITY_NAMES = {"none", "minor", "major", "critical"};
+
     public boolean breachRisk(long etaSec, long slaSec, long bufferSec) {
+        return atRisk(etaSec, slaSec, bufferSec);
+    }
+
+    public String breachSeverity(long etaSec, long slaSec) {
+        return severityName(severityCode(etaSec, slaSec));
+    }
+
+    public static String severityName(byte code) {
+        return SEVERITY_NAMES[code];
+    }
+
+    static boolean atRisk(long etaSec, long slaSec, long bufferSec) {
         
         return etaSec >= slaSec - bufferSec;
     }
 
-    public String breachSeverity(long etaSec, long slaSec) {
+    static byte severityCode(long etaSec, long slaSec) {
         long delta = etaSec - slaSec;
         
         if (delta < 0) {
-            return "none";
+            return SEVERITY_NONE;
         }
         
         if (delta < 300) {
-            return "minor";
+            return SEVERITY_MINOR;
         }
         
         if (delta < 900) {
-            return "major";
+            return SEVERITY_MAJOR;
         }
-        return "critical";
+        return SEVERITY_CRITICAL;
     }
 }
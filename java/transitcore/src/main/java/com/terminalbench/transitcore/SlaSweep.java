@@ -0,0 +1,110 @@
+package com.terminalbench.transitcore;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Fleet-wide SLA sweep over columnar {@code eta}/{@code sla}/{@code buffer} arrays. Entry
+ * {@code i} of the severity output is the {@link SlaModel} severity code of
+ * {@code breachSeverity(eta[i], sla[i])}, and the same pass builds the severity histogram and
+ * counts {@code breachRisk(eta[i], sla[i], buffer[i])}. Both go through the same kernels as the
+ * scalar methods, so the answers are identical. Batches above the parallel threshold are split on
+ * a fork-join pool, each task filling its own slice and histogram.
+ */
+public final class SlaSweep {
+    public record Summary(long[] histogram, long atRisk) {
+        public long count(byte severityCode) {
+            return histogram[severityCode];
+        }
+    }
+
+    static final int PARALLEL_THRESHOLD = 1 << 15;
+
+    private final ForkJoinPool pool;
+    private final int parallelThreshold;
+
+    public SlaSweep() {
+        this(ForkJoinPool.commonPool(), PARALLEL_THRESHOLD);
+    }
+
+    public SlaSweep(ForkJoinPool pool, int parallelThreshold) {
+        if (parallelThreshold < 64) {
+            throw new IllegalArgumentException("parallelThreshold must be at least 64");
+        }
+        this.pool = pool;
+        this.parallelThreshold = parallelThreshold;
+    }
+
+    public Summary sweep(long[] etaSec, long[] slaSec, long[] bufferSec, byte[] severities) {
+        int length = etaSec.length;
+        if (slaSec.length != length || bufferSec.length != length || severities.length < length) {
+            throw new IllegalArgumentException("column length mismatch");
+        }
+        long[] counts = length <= parallelThreshold
+                ? kernel(etaSec, slaSec, bufferSec, severities, 0, length)
+                : pool.invoke(new SweepTask(etaSec, slaSec, bufferSec, severities, 0, length, parallelThreshold));
+        long[] histogram = new long[SlaModel.SEVERITY_CRITICAL + 1];
+        System.arraycopy(counts, 0, histogram, 0, histogram.length);
+        return new Summary(histogram, counts[histogram.length]);
+    }
+
+    // counts[0..3] is the histogram, counts[4] the at-risk total.
+    private static long[] kernel(long[] eta, long[] sla, long[] buffer, byte[] severities, int from, int to) {
+        long none = 0;
+        long minor = 0;
+        long major = 0;
+        long critical = 0;
+        long atRisk = 0;
+        for (int i = from; i < to; i++) {
+            byte code = SlaModel.severityCode(eta[i], sla[i]);
+            severities[i] = code;
+            switch (code) {
+                case SlaModel.SEVERITY_NONE -> none += 1;
+                case SlaModel.SEVERITY_MINOR -> minor += 1;
+                case SlaModel.SEVERITY_MAJOR -> major += 1;
+                default -> critical += 1;
+            }
+            if (SlaModel.atRisk(eta[i], sla[i], buffer[i])) {
+                atRisk += 1;
+            }
+        }
+        return new long[] {none, minor, major, critical, atRisk};
+    }
+
+    @SuppressWarnings("serial")
+    private static final class SweepTask extends RecursiveTask<long[]> {
+        private final long[] eta;
+        private final long[] sla;
+        private final long[] buffer;
+        private final byte[] severities;
+        private final int from;
+        private final int to;
+        private final int threshold;
+
+        SweepTask(long[] eta, long[] sla, long[] buffer, byte[] severities, int from, int to, int threshold) {
+            this.eta = eta;
+            this.sla = sla;
+            this.buffer = buffer;
+            this.severities = severities;
+            this.from = from;
+            this.to = to;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected long[] compute() {
+            if (to - from <= threshold) {
+                return kernel(eta, sla, buffer, severities, from, to);
+            }
+            int mid = (from + to) >>> 1;
+            SweepTask left = new SweepTask(eta, sla, buffer, severities, from, mid, threshold);
+            left.fork();
+            long[] counts = new SweepTask(eta, sla, buffer, severities, mid, to, threshold).compute();
+            long[] other = left.join();
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] += other[i];
+            }
+            return counts;
+        }
+    }
+}
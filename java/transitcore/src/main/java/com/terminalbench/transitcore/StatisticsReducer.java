@@ -15,7 +15,17 @@ public final class StatisticsReducer {
         return copy[rank];
     }
 
+    public QuantileSketch sketch(double[] values) {
+        QuantileSketch sketch = new QuantileSketch();
+        sketch.addAll(values);
+        return sketch;
+    }
+
     public double boundedRatio(double numerator, double denominator) {
+        return bounded(numerator, denominator);
+    }
+
+    static double bounded(double numerator, double denominator) {
         
         if (denominator < 0) {
             return 0.0;
@@ -0,0 +1,293 @@
+package com.terminalbench.transitcore;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongConsumer;
+
+/**
+ * Live workflow instances addressed by handle, with every state change applied by CAS against a
+ * {@link CompiledWorkflow}.
+ *
+ * <p>Slots live in {@link AtomicIntegerArray} chunks of {@code 1 << 16} that are created on first
+ * use. Each slot packs a 24-bit generation above {@code stateId + 1}, so a zero state marks a free
+ * or never-used slot. Slot ids are handed out by a counter and reused through a lock-free
+ * free-list once removed, and removal bumps the slot's generation. A handle is the slot id in the
+ * low half of a {@code long} and the generation it was created under in the high half, and every
+ * operation CASes against the packed word, so a handle kept past {@link #remove} can neither read
+ * nor change whatever instance later reuses the slot (until the generation wraps after 2^24
+ * reuses of that one slot). A transition only succeeds when the slot still holds the expected
+ * state and the compiled matrix allows the move, so racing writers cannot apply two transitions
+ * from the same state. Per-state counts are {@link LongAdder}s updated after each successful CAS:
+ * they are exact when the store is quiet and may lag by in-flight transitions otherwise. Scans
+ * walk the chunks without locking and see each slot's state at the moment it is read.
+ */
+public final class WorkflowInstanceStore {
+    private static final int CHUNK_BITS = 16;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    private static final int STATE_BITS = 8;
+    private static final int STATE_MASK = (1 << STATE_BITS) - 1;
+    private static final int EMPTY = 0;
+
+    private final CompiledWorkflow workflow;
+    private final int capacity;
+    private final AtomicReferenceArray<AtomicIntegerArray> chunks;
+    private final AtomicInteger allocated = new AtomicInteger();
+    private final LongAdder[] counts;
+    private final FreeIds free;
+
+    public WorkflowInstanceStore(CompiledWorkflow workflow, int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        if (workflow.stateCount() >= STATE_MASK) {
+            throw new IllegalArgumentException("too many states: " + workflow.stateCount());
+        }
+        this.workflow = workflow;
+        this.capacity = capacity;
+        this.chunks = new AtomicReferenceArray<>((capacity + CHUNK_MASK) >>> CHUNK_BITS);
+        this.counts = new LongAdder[workflow.stateCount()];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = new LongAdder();
+        }
+        this.free = new FreeIds(capacity);
+    }
+
+    public CompiledWorkflow workflow() {
+        return workflow;
+    }
+
+    public static int slotOf(long handle) {
+        return (int) handle;
+    }
+
+    public long create(String state) {
+        return create(stateOrThrow(state));
+    }
+
+    public long create(int state) {
+        if (state < 0 || state >= counts.length) {
+            throw new IllegalArgumentException("unknown state " + state);
+        }
+        int id = free.pop();
+        if (id < 0) {
+            id = allocated.getAndIncrement();
+            if (id >= capacity) {
+                allocated.decrementAndGet();
+                throw new IllegalStateException("workflow store full");
+            }
+        }
+        // A popped or fresh slot is owned by this call alone, so a plain read-then-set is safe.
+        AtomicIntegerArray chunk = chunk(id);
+        int generation = chunk.get(id & CHUNK_MASK) & ~STATE_MASK;
+        chunk.set(id & CHUNK_MASK, generation | (state + 1));
+        counts[state].increment();
+        return handle(id, generation);
+    }
+
+    // Current state id, or CompiledWorkflow.NO_STATE for a free slot or a stale handle.
+    public int state(long handle) {
+        int id = idOf(handle);
+        AtomicIntegerArray chunk = chunks.get(id >>> CHUNK_BITS);
+        if (chunk == null) {
+            return CompiledWorkflow.NO_STATE;
+        }
+        int word = chunk.get(id & CHUNK_MASK);
+        return sameGeneration(word, handle) ? (word & STATE_MASK) - 1 : CompiledWorkflow.NO_STATE;
+    }
+
+    public String stateName(long handle) {
+        int state = state(handle);
+        return state == CompiledWorkflow.NO_STATE ? null : workflow.stateName(state);
+    }
+
+    public boolean transition(long handle, int expected, int to) {
+        int id = idOf(handle);
+        AtomicIntegerArray chunk = chunks.get(id >>> CHUNK_BITS);
+        int generation = generationBits(handle);
+        if (chunk == null || !workflow.allowed(expected, to)
+                || !chunk.compareAndSet(id & CHUNK_MASK, generation | (expected + 1), generation | (to + 1))) {
+            return false;
+        }
+        counts[expected].decrement();
+        counts[to].increment();
+        return true;
+    }
+
+    public boolean transition(long handle, String expected, String to) {
+        return transition(handle, workflow.stateId(expected), workflow.stateId(to));
+    }
+
+    // Applies the event to whatever state the instance is in; returns the new state or NO_STATE.
+    public int fire(long handle, int event) {
+        int id = idOf(handle);
+        AtomicIntegerArray chunk = chunks.get(id >>> CHUNK_BITS);
+        if (chunk == null) {
+            return CompiledWorkflow.NO_STATE;
+        }
+        int slot = id & CHUNK_MASK;
+        while (true) {
+            int current = chunk.get(slot);
+            if (!sameGeneration(current, handle) || (current & STATE_MASK) == EMPTY) {
+                return CompiledWorkflow.NO_STATE;
+            }
+            int from = (current & STATE_MASK) - 1;
+            int to = workflow.next(from, event);
+            if (to == CompiledWorkflow.NO_STATE) {
+                return CompiledWorkflow.NO_STATE;
+            }
+            if (chunk.compareAndSet(slot, current, (current & ~STATE_MASK) | (to + 1))) {
+                counts[from].decrement();
+                counts[to].increment();
+                return to;
+            }
+        }
+    }
+
+    public int fire(long handle, String event) {
+        return fire(handle, workflow.eventId(event));
+    }
+
+    public boolean remove(long handle) {
+        int id = idOf(handle);
+        AtomicIntegerArray chunk = chunks.get(id >>> CHUNK_BITS);
+        if (chunk == null) {
+            return false;
+        }
+        int slot = id & CHUNK_MASK;
+        while (true) {
+            int current = chunk.get(slot);
+            if (!sameGeneration(current, handle) || (current & STATE_MASK) == EMPTY) {
+                return false;
+            }
+            if (chunk.compareAndSet(slot, current, (current & ~STATE_MASK) + (1 << STATE_BITS))) {
+                counts[(current & STATE_MASK) - 1].decrement();
+                free.push(id);
+                return true;
+            }
+        }
+    }
+
+    public long count(int state) {
+        return counts[state].sum();
+    }
+
+    public long count(String state) {
+        return count(stateOrThrow(state));
+    }
+
+    public long[] counts() {
+        long[] snapshot = new long[counts.length];
+        for (int i = 0; i < counts.length; i++) {
+            snapshot[i] = counts[i].sum();
+        }
+        return snapshot;
+    }
+
+    // Calls the visitor with the handle of every instance found in the state; returns how many.
+    public int scan(int state, LongConsumer visitor) {
+        int target = state + 1;
+        int end = Math.min(allocated.get(), capacity);
+        int found = 0;
+        for (int base = 0; base < end; base += CHUNK_SIZE) {
+            AtomicIntegerArray chunk = chunks.get(base >>> CHUNK_BITS);
+            if (chunk == null) {
+                continue;
+            }
+            int limit = Math.min(CHUNK_SIZE, end - base);
+            for (int slot = 0; slot < limit; slot++) {
+                int word = chunk.get(slot);
+                if ((word & STATE_MASK) == target) {
+                    visitor.accept(handle(base + slot, word & ~STATE_MASK));
+                    found += 1;
+                }
+            }
+        }
+        return found;
+    }
+
+    public int scan(String state, LongConsumer visitor) {
+        return scan(stateOrThrow(state), visitor);
+    }
+
+    private static long handle(int id, int generationBits) {
+        return (long) (generationBits >>> STATE_BITS) << 32 | id;
+    }
+
+    private static int generationBits(long handle) {
+        return (int) (handle >>> 32) << STATE_BITS;
+    }
+
+    private static boolean sameGeneration(int word, long handle) {
+        return (word & ~STATE_MASK) == generationBits(handle);
+    }
+
+    private AtomicIntegerArray chunk(int id) {
+        int index = id >>> CHUNK_BITS;
+        AtomicIntegerArray chunk = chunks.get(index);
+        if (chunk == null) {
+            chunks.compareAndSet(index, null, new AtomicIntegerArray(CHUNK_SIZE));
+            chunk = chunks.get(index);
+        }
+        return chunk;
+    }
+
+    private int stateOrThrow(String state) {
+        int id = workflow.stateId(state);
+        if (id == CompiledWorkflow.NO_STATE) {
+            throw new IllegalArgumentException("unknown state " + state);
+        }
+        return id;
+    }
+
+    private int idOf(long handle) {
+        int id = slotOf(handle);
+        if (id < 0 || id >= capacity || handle >>> 32 > (-1 >>> STATE_BITS)) {
+            throw new IllegalArgumentException("instance handle out of range: " + handle);
+        }
+        return id;
+    }
+
+    /**
+     * Treiber stack of released ids threaded through an int array, with a stamp in the high half
+     * of the head word so a pop cannot be fooled by the same id being pushed back (ABA).
+     */
+    private static final class FreeIds {
+        private static final long NONE = 0xFFFF_FFFFL;
+
+        private final AtomicLong head = new AtomicLong(NONE);
+        private final AtomicIntegerArray next;
+
+        FreeIds(int capacity) {
+            next = new AtomicIntegerArray(capacity);
+        }
+
+        void push(int id) {
+            while (true) {
+                long current = head.get();
+                next.set(id, (int) current);
+                long stamp = (current >>> 32) + 1;
+                if (head.compareAndSet(current, stamp << 32 | (id & NONE))) {
+                    return;
+                }
+            }
+        }
+
+        int pop() {
+            while (true) {
+                long current = head.get();
+                int id = (int) current;
+                if ((current & NONE) == NONE) {
+                    return -1;
+                }
+                long stamp = (current >>> 32) + 1;
+                if (head.compareAndSet(current, stamp << 32 | (next.get(id) & NONE))) {
+                    return id;
+                }
+            }
+        }
+    }
+}
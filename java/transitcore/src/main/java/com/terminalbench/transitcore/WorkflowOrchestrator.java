@@ -11,6 +11,11 @@ public final class WorkflowOrchestrator {
             "dispatched", List.of("reported"),
             "reported", List.of()
     );
+    static final List<String> EVENTS = List.of("validate", "capacity_ok", "dispatch", "publish", "cancel");
+
+    static Map<String, List<String>> transitions() {
+        return TRANSITIONS;
+    }
 
     public boolean transitionAllowed(String from, String to) {
         return TRANSITIONS.getOrDefault(from, List.of()).contains(to);
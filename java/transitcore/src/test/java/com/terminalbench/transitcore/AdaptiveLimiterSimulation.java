@@ -0,0 +1,107 @@
+package com.terminalbench.transitcore;
+
+import java.util.PriorityQueue;
+import java.util.Random;
+
+/**
+ * Discrete-time comparison of the static {@link QueueGovernor#nextPolicy} tiers with
+ * {@link AdaptiveLimiter}, both admitting through {@link QueueGovernor#shouldThrottle}.
+ *
+ * <p>The downstream serves {@code capacity} calls at base latency; beyond that, latency grows
+ * with the overload factor and calls slower than the timeout fail. Capacity drops to a quarter
+ * halfway through the run, then recovers. Output is goodput, failures and latency percentiles.
+ * Run with: {@code java -cp target/classes:target/test-classes com.terminalbench.transitcore.AdaptiveLimiterSimulation}
+ */
+public final class AdaptiveLimiterSimulation {
+    private static final int TICKS = 120_000;
+    private static final double ARRIVALS_PER_TICK = 10.0;
+    private static final long BASE_LATENCY_TICKS = 5;
+    private static final long TIMEOUT_TICKS = 60;
+
+    private record Completion(long atTick, long latency, boolean failed) implements Comparable<Completion> {
+        public int compareTo(Completion other) {
+            return Long.compare(atTick, other.atTick);
+        }
+    }
+
+    private interface Policy {
+        QueueGovernor.QueuePolicy current();
+
+        void completed(long latency, int inflight, boolean failed);
+    }
+
+    public static void main(String[] args) {
+        QueueGovernor governor = new QueueGovernor();
+        int[] burst = new int[1];
+        run("static tiers", new Policy() {
+            public QueueGovernor.QueuePolicy current() {
+                return governor.nextPolicy(burst[0]);
+            }
+
+            public void completed(long latency, int inflight, boolean failed) {
+                burst[0] = failed ? burst[0] + 1 : Math.max(0, burst[0] - 1);
+            }
+        });
+        AdaptiveLimiter limiter = new AdaptiveLimiter(32, 4, 256);
+        run("adaptive limiter", new Policy() {
+            public QueueGovernor.QueuePolicy current() {
+                return limiter.policy();
+            }
+
+            public void completed(long latency, int inflight, boolean failed) {
+                limiter.onSample(latency, inflight, failed);
+            }
+        });
+    }
+
+    private static void run(String label, Policy policy) {
+        QueueGovernor governor = new QueueGovernor();
+        Random random = new Random(42);
+        PriorityQueue<Completion> pending = new PriorityQueue<>();
+        QuantileSketch latencies = new QuantileSketch();
+        long succeeded = 0;
+        long failed = 0;
+        long rejected = 0;
+        int inflight = 0;
+        for (long tick = 0; tick < TICKS; tick++) {
+            while (!pending.isEmpty() && pending.peek().atTick() <= tick) {
+                Completion done = pending.poll();
+                policy.completed(done.latency(), inflight, done.failed());
+                inflight -= 1;
+                if (done.failed()) {
+                    failed += 1;
+                } else {
+                    succeeded += 1;
+                    latencies.add(done.latency());
+                }
+            }
+            int capacity = tick > TICKS / 2 && tick < 3 * TICKS / 4 ? 15 : 60;
+            int arrivals = poisson(random, ARRIVALS_PER_TICK);
+            for (int i = 0; i < arrivals; i++) {
+                if (governor.shouldThrottle(inflight, 0, policy.current())) {
+                    rejected += 1;
+                    continue;
+                }
+                inflight += 1;
+                double overload = Math.max(1.0, (double) inflight / capacity);
+                long latency = Math.round(BASE_LATENCY_TICKS * overload * overload * (0.8 + 0.4 * random.nextDouble()));
+                boolean timedOut = latency > TIMEOUT_TICKS;
+                pending.add(new Completion(tick + Math.min(latency, TIMEOUT_TICKS), Math.min(latency, TIMEOUT_TICKS), timedOut));
+            }
+        }
+        System.out.printf("%-18s goodput %8.3f/tick  failed %7d  rejected %8d  p50 %5.1f  p99 %5.1f  p999 %5.1f ticks%n",
+                label, (double) succeeded / TICKS, failed, rejected,
+                latencies.quantile(0.5), latencies.quantile(0.99), latencies.quantile(0.999));
+    }
+
+    private static int poisson(Random random, double mean) {
+        double threshold = Math.exp(-mean);
+        double product = random.nextDouble();
+        int count = 0;
+        while (product > threshold) {
+            product *= random.nextDouble();
+            count += 1;
+        }
+        return count;
+    }
+}
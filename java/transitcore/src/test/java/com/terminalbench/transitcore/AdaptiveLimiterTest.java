@@ -0,0 +1,60 @@
+package com.terminalbench.transitcore;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class AdaptiveLimiterTest {
+    @Test
+    void growsWhileLatencyHoldsAndCallersUseTheLimit() {
+        AdaptiveLimiter limiter = new AdaptiveLimiter(10, 4, 200);
+        for (int i = 0; i < 200; i++) {
+            limiter.onSample(1_000_000, limiter.limit(), false);
+        }
+        assertEquals(200, limiter.limit());
+        assertFalse(limiter.policy().dropOldest());
+    }
+
+    @Test
+    void doesNotGrowWhenUnderused() {
+        AdaptiveLimiter limiter = new AdaptiveLimiter(20, 4, 200);
+        for (int i = 0; i < 200; i++) {
+            limiter.onSample(1_000_000, 2, false);
+        }
+        assertEquals(20, limiter.limit());
+    }
+
+    @Test
+    void shrinksWhenLatencyDrifts() {
+        AdaptiveLimiter limiter = new AdaptiveLimiter(100, 4, 200);
+        for (int i = 0; i < 100; i++) {
+            limiter.onSample(1_000_000, 100, false);
+        }
+        int before = limiter.limit();
+        for (int i = 0; i < 30; i++) {
+            limiter.onSample(6_000_000, before, false);
+        }
+        assertTrue(limiter.limit() < before / 2, "limit " + limiter.limit());
+        assertTrue(limiter.policy().dropOldest());
+    }
+
+    @Test
+    void failuresCutTheLimitDownToTheFloor() {
+        AdaptiveLimiter limiter = new AdaptiveLimiter(64, 8, 64);
+        for (int i = 0; i < 100; i++) {
+            limiter.onSample(1_000_000, 64, true);
+        }
+        assertEquals(8, limiter.limit());
+        QueueGovernor governor = new QueueGovernor();
+        assertTrue(governor.shouldThrottle(8, 1, limiter.policy()));
+    }
+
+    @Test
+    void rejectsInconsistentLimits() {
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveLimiter(2, 4, 8));
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveLimiter(4, 4, 8).onSample(0, 1, false));
+    }
+}
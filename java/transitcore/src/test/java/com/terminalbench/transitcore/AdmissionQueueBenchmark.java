@@ -0,0 +1,84 @@
+package com.terminalbench.transitcore;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Producer/consumer handoff through {@link AdmissionQueue} against {@link ArrayBlockingQueue},
+ * both used non-blocking with the same bound; producers retry throttled offers.
+ * Run with: {@code java -cp target/classes:target/test-classes com.terminalbench.transitcore.AdmissionQueueBenchmark [pairs]}
+ */
+public final class AdmissionQueueBenchmark {
+    private static final int PER_PRODUCER = 500_000;
+    private static final int BOUND = 1_024;
+
+    private interface Channel {
+        boolean offer(Integer value);
+
+        Integer poll();
+    }
+
+    public static void main(String[] args) {
+        int pairs = args.length > 0 ? Integer.parseInt(args[0]) : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        Integer boxed = 7;
+        Benchmarks.run("AdmissionQueue, " + pairs + "P/" + pairs + "C", (long) pairs * PER_PRODUCER, () -> {
+            AdmissionQueue<Integer> queue = new AdmissionQueue<>(BOUND, new QueueGovernor.QueuePolicy(BOUND, false));
+            return handoff(pairs, boxed, new Channel() {
+                public boolean offer(Integer value) {
+                    return queue.offer(value);
+                }
+
+                public Integer poll() {
+                    return queue.poll();
+                }
+            });
+        });
+        Benchmarks.run("ArrayBlockingQueue, " + pairs + "P/" + pairs + "C", (long) pairs * PER_PRODUCER, () -> {
+            ArrayBlockingQueue<Integer> queue = new ArrayBlockingQueue<>(BOUND);
+            return handoff(pairs, boxed, new Channel() {
+                public boolean offer(Integer value) {
+                    return queue.offer(value);
+                }
+
+                public Integer poll() {
+                    return queue.poll();
+                }
+            });
+        });
+    }
+
+    private static long handoff(int pairs, Integer value, Channel channel) {
+        LongAdder received = new LongAdder();
+        CountDownLatch done = new CountDownLatch(2 * pairs);
+        long total = (long) pairs * PER_PRODUCER;
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < pairs; p++) {
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < PER_PRODUCER; i++) {
+                    while (!channel.offer(value)) {
+                        Thread.onSpinWait();
+                    }
+                }
+                done.countDown();
+            }));
+            threads.add(new Thread(() -> {
+                while (received.sum() < total) {
+                    if (channel.poll() != null) {
+                        received.increment();
+                    }
+                }
+                done.countDown();
+            }));
+        }
+        threads.forEach(Thread::start);
+        try {
+            done.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return received.sum();
+    }
+}
@@ -0,0 +1,108 @@
+package com.terminalbench.transitcore;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import org.junit.jupiter.api.Test;
+
+class AdmissionQueueTest {
+    @Test
+    void throttlesAtLimitWithoutDropOldest() {
+        AdmissionQueue<Integer> queue = new AdmissionQueue<>(64, new QueueGovernor.QueuePolicy(3, false));
+        assertTrue(queue.offer(1));
+        assertTrue(queue.offer(2));
+        assertTrue(queue.offer(3));
+        assertFalse(queue.offer(4));
+        assertEquals(3, queue.depth());
+        assertEquals(1, queue.throttled());
+        assertEquals(1, queue.poll());
+        assertTrue(queue.offer(5));
+    }
+
+    @Test
+    void dropOldestEvictsHead() {
+        AdmissionQueue<Integer> queue = new AdmissionQueue<>(8, new QueueGovernor.QueuePolicy(2, true));
+        queue.offer(1);
+        queue.offer(2);
+        queue.offer(3);
+        assertEquals(1, queue.dropped());
+        assertEquals(2, queue.poll());
+        assertEquals(3, queue.poll());
+        assertNull(queue.poll());
+    }
+
+    @Test
+    void policySwitchAppliesToLaterOffers() {
+        QueueGovernor governor = new QueueGovernor();
+        AdmissionQueue<Integer> queue = new AdmissionQueue<>(64, governor.nextPolicy(0));
+        for (int i = 0; i < 20; i++) {
+            assertTrue(queue.offer(i));
+        }
+        queue.applyPolicy(new QueueGovernor.QueuePolicy(8, false));
+        assertFalse(queue.offer(20));
+        queue.applyPolicy(new QueueGovernor.QueuePolicy(8, true));
+        assertTrue(queue.offer(21));
+        assertEquals(8, queue.depth());
+        assertEquals(13, queue.dropped());
+    }
+
+    @Test
+    void limitIsCappedAtRingCapacity() {
+        AdmissionQueue<Integer> queue = new AdmissionQueue<>(4, new QueueGovernor.QueuePolicy(32, false));
+        for (int i = 0; i < 4; i++) {
+            assertTrue(queue.offer(i));
+        }
+        assertFalse(queue.offer(4));
+        assertThrows(IllegalArgumentException.class, () -> queue.applyPolicy(new QueueGovernor.QueuePolicy(0, false)));
+    }
+
+    @Test
+    void concurrentProducersAndConsumersLoseNothing() throws InterruptedException {
+        AdmissionQueue<Integer> queue = new AdmissionQueue<>(128, new QueueGovernor.QueuePolicy(100, true));
+        int producers = 4;
+        int perProducer = 100_000;
+        LongAdder consumed = new LongAdder();
+        AtomicInteger overLimit = new AtomicInteger();
+        AtomicBoolean producing = new AtomicBoolean(true);
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    queue.offer(i);
+                    if (queue.depth() > 100) {
+                        overLimit.incrementAndGet();
+                    }
+                }
+            }));
+        }
+        List<Thread> consumers = new ArrayList<>();
+        for (int c = 0; c < 2; c++) {
+            consumers.add(new Thread(() -> {
+                while (producing.get() || queue.depth() > 0) {
+                    if (queue.poll() != null) {
+                        consumed.increment();
+                    }
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        consumers.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        producing.set(false);
+        for (Thread consumer : consumers) {
+            consumer.join();
+        }
+        assertEquals(0, overLimit.get());
+        assertEquals((long) producers * perProducer, consumed.sum() + queue.dropped());
+    }
+}
@@ -0,0 +1,78 @@
+package com.terminalbench.transitcore;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class AssignmentLogTest {
+    @Test
+    void churnCountsChangesOverKeysInEitherVersion() {
+        AssignmentLog log = new AssignmentLog(8);
+        log.put("a", "1");
+        log.put("b", "2");
+        log.put("c", "3");
+        long before = log.commit();
+        log.put("b", "x");
+        log.remove("c");
+        log.put("d", "4");
+        long after = log.commit();
+        assertEquals(3.0 / 4.0, log.churnRate(before, after), 1e-9);
+        assertEquals(1.0, log.churnRate(0, before), 1e-9);
+        assertEquals(0.0, log.churnRate(after, after), 1e-9);
+    }
+
+    @Test
+    void revertedChangesDoNotCount() {
+        AssignmentLog log = new AssignmentLog(8);
+        log.put("a", "1");
+        long first = log.commit();
+        log.put("a", "2");
+        log.put("tmp", "t");
+        log.commit();
+        log.put("a", "1");
+        log.remove("tmp");
+        long third = log.commit();
+        assertEquals(0.0, log.churnRate(first, third), 1e-9);
+    }
+
+    @Test
+    void matchesFullMapDefinitionAcrossRetainedVersions() {
+        Random random = new Random(12);
+        AssignmentLog log = new AssignmentLog(16);
+        Map<Long, Map<String, String>> states = new HashMap<>();
+        states.put(0L, Map.of());
+        for (int tick = 0; tick < 40; tick++) {
+            for (int i = 0; i < 30; i++) {
+                String key = "shipment-" + random.nextInt(200);
+                if (random.nextInt(5) == 0) {
+                    log.remove(key);
+                } else {
+                    log.put(key, "route-" + random.nextInt(6));
+                }
+            }
+            states.put(log.commit(), new HashMap<>(log.current()));
+        }
+        for (long from = log.oldestVersion(); from <= log.version(); from++) {
+            for (long to = from; to <= log.version(); to++) {
+                assertEquals(scan(states.get(from), states.get(to)), log.churnRate(from, to), 1e-12);
+            }
+        }
+        assertThrows(IllegalArgumentException.class, () -> log.churnRate(log.oldestVersion() - 1, log.version()));
+    }
+
+    private static double scan(Map<String, String> previous, Map<String, String> current) {
+        Map<String, Boolean> union = new HashMap<>();
+        for (String key : previous.keySet()) {
+            union.put(key, !previous.get(key).equals(current.get(key)));
+        }
+        for (String key : current.keySet()) {
+            union.putIfAbsent(key, true);
+        }
+        long changed = union.values().stream().filter(Boolean::booleanValue).count();
+        return union.isEmpty() ? 0.0 : (double) changed / union.size();
+    }
+}
@@ -0,0 +1,46 @@
+package com.terminalbench.transitcore;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
+
+/**
+ * Segment-parallel chain verification at increasing pool sizes over one generated audit history.
+ * Run with: {@code java -cp target/classes:target/test-classes com.terminalbench.transitcore.AuditChainVerifierBenchmark [records]}
+ */
+public final class AuditChainVerifierBenchmark {
+    public static void main(String[] args) throws IOException {
+        int records = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        Path dir = Files.createTempDirectory("audit-verify-bench");
+        try {
+            try (AuditLog log = new AuditLog(dir, 16L << 20, 4_096)) {
+                for (int i = 0; i < records; i++) {
+                    log.append("tenant-" + (i % 64) + ":trace-" + i + ":dispatch.accepted");
+                }
+            }
+            int cores = Runtime.getRuntime().availableProcessors();
+            for (int parallelism = 1; parallelism <= cores; parallelism *= 2) {
+                ForkJoinPool pool = new ForkJoinPool(parallelism);
+                AuditChainVerifier verifier = new AuditChainVerifier(pool);
+                Benchmarks.run("verify, " + parallelism + " workers", records, () -> {
+                    try {
+                        return verifier.verify(dir).lastHash();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                pool.shutdown();
+            }
+        } finally {
+            try (Stream<Path> files = Files.walk(dir)) {
+                for (Path path : files.sorted(Comparator.reverseOrder()).toList()) {
+                    Files.delete(path);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.terminalbench.transitcore;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class AuditChainVerifierTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void verifiesSealedSegmentsInParallel() throws IOException {
+        long expected = writeLog(2_000);
+        AuditChainVerifier.Verification verification = new AuditChainVerifier().verify(dir);
+        assertTrue(verification.valid(), verification.failure());
+        assertEquals(2_000, verification.records());
+        assertEquals(2_000, verification.lastSequence());
+        assertEquals(expected, verification.lastHash());
+        assertTrue(verification.segments().size() > 4);
+        assertTrue(verification.segments().get(0).sealed());
+        assertFalse(verification.segments().get(verification.segments().size() - 1).sealed());
+    }
+
+    @Test
+    void detectsTamperedPayload() throws IOException {
+        writeLog(500);
+        Path segment = AuditLog.segmentFiles(dir).get(1);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            int offset = AuditLog.SEGMENT_HEADER_BYTES + AuditLog.RECORD_HEADER_BYTES;
+            ByteBuffer one = ByteBuffer.allocate(1);
+            channel.read(one, offset);
+            channel.write(ByteBuffer.wrap(new byte[] {(byte) (one.get(0) + 1)}), offset);
+        }
+        AuditChainVerifier.Verification verification = new AuditChainVerifier().verify(dir);
+        assertFalse(verification.valid());
+        assertTrue(verification.failure().contains("hash mismatch"), verification.failure());
+    }
+
+    @Test
+    void detectsMissingSegment() throws IOException {
+        writeLog(500);
+        List<Path> segments = AuditLog.segmentFiles(dir);
+        Files.delete(segments.get(2));
+        AuditChainVerifier.Verification verification = new AuditChainVerifier().verify(dir);
+        assertFalse(verification.valid());
+        assertTrue(verification.failure().contains("start hash"), verification.failure());
+    }
+
+    @Test
+    void reopenAfterSealedSegmentStartsFreshSegment() throws IOException {
+        writeLog(100);
+        List<Path> segments = AuditLog.segmentFiles(dir);
+        Files.delete(segments.get(segments.size() - 1));
+        try (AuditLog log = new AuditLog(dir, 1_024, 32)) {
+            log.append("after-reopen");
+        }
+        AuditChainVerifier.Verification verification = new AuditChainVerifier().verify(dir);
+        assertTrue(verification.valid(), verification.failure());
+    }
+
+    @Test
+    void payloadEndingInFooterMagicIsNotMistakenForFooter() throws IOException {
+        AuditTrail trail = new AuditTrail();
+        long hash = 0;
+        try (AuditLog log = new AuditLog(dir, 1 << 20, 8)) {
+            for (int i = 0; i < 10; i++) {
+                String payload = "note-" + i + ":TCAUDFTR";
+                hash = trail.appendHash(hash, payload);
+                log.append(payload);
+            }
+        }
+        AuditChainVerifier.Verification verification = new AuditChainVerifier().verify(dir);
+        assertTrue(verification.valid(), verification.failure());
+        assertEquals(10, verification.records());
+        assertFalse(verification.segments().get(0).sealed());
+        try (AuditLog log = new AuditLog(dir, 1 << 20, 8)) {
+            assertEquals(10, log.lastSequence());
+            assertEquals(hash, log.lastHash());
+            assertEquals(1, log.segments());
+        }
+    }
+
+    private long writeLog(int records) throws IOException {
+        AuditTrail trail = new AuditTrail();
+        long hash = 0;
+        try (AuditLog log = new AuditLog(dir, 1_024, 32)) {
+            for (int i = 0; i < records; i++) {
+                String payload = "tenant-" + (i % 7) + ":trace-" + i + ":capacity.checked";
+                hash = trail.appendHash(hash, payload);
+                log.append(payload);
+            }
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,65 @@
+package com.terminalbench.transitcore;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Group-commit append throughput from many threads at different maximum batch sizes.
+ * Run with: {@code java -cp target/classes:target/test-classes com.terminalbench.transitcore.AuditLogBenchmark [threads] [appendsPerThread]}
+ */
+public final class AuditLogBenchmark {
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+        int perThread = args.length > 1 ? Integer.parseInt(args[1]) : 2_000;
+        for (int maxBatch : new int[] {1, 16, 128, 1_024}) {
+            Path dir = Files.createTempDirectory("audit-bench");
+            try (AuditLog log = new AuditLog(dir, 64L << 20, maxBatch)) {
+                double nsPerOp = Benchmarks.run("group commit, " + threads + " threads, maxBatch=" + maxBatch,
+                        (long) threads * perThread, () -> appendFromThreads(log, threads, perThread));
+                System.out.printf("    fsync batches so far: %d (%.1f appends per fsync)%n",
+                        log.batches(), (double) log.lastSequence() / log.batches());
+            } finally {
+                delete(dir);
+            }
+        }
+    }
+
+    private static long appendFromThreads(AuditLog log, int threads, int perThread) {
+        List<Thread> workers = new ArrayList<>(threads);
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            workers.add(Thread.ofVirtual().start(() -> {
+                try {
+                    for (int i = 0; i < perThread; i++) {
+                        log.append("tenant-" + thread + ":dispatch.accepted:" + i);
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }));
+        }
+        for (Thread worker : workers) {
+            try {
+                worker.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+        return log.lastHash();
+    }
+
+    private static void delete(Path dir) throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path path : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.terminalbench.transitcore;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class AuditLogTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void chainMatchesAppendHashAcrossSegments() throws IOException {
+        AuditTrail trail = new AuditTrail();
+        long expected = 0;
+        try (AuditLog log = new AuditLog(dir, 256, 16)) {
+            for (int i = 0; i < 40; i++) {
+                String payload = "dispatch.accepted:job-" + i;
+                expected = trail.appendHash(expected, payload);
+                AuditLog.Appended appended = log.append(payload);
+                assertEquals(i + 1, appended.sequence());
+                assertEquals(expected, appended.hash());
+            }
+            assertTrue(log.segments() > 1);
+        }
+        assertEquals(expected, readChain(dir));
+    }
+
+    @Test
+    void concurrentAppendersShareCommits() throws Exception {
+        int threads = 8;
+        int perThread = 500;
+        try (AuditLog log = new AuditLog(dir, 1 << 16, 64)) {
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+            List<Future<List<Long>>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                futures.add(executor.submit(() -> {
+                    List<Long> sequences = new ArrayList<>();
+                    for (int i = 0; i < perThread; i++) {
+                        sequences.add(log.append("t" + thread + ":" + i).sequence());
+                    }
+                    return sequences;
+                }));
+            }
+            Set<Long> sequences = new HashSet<>();
+            for (Future<List<Long>> future : futures) {
+                sequences.addAll(future.get());
+            }
+            executor.shutdown();
+            assertEquals(threads * perThread, sequences.size());
+            assertEquals(threads * perThread, log.lastSequence());
+            assertTrue(log.batches() <= threads * perThread);
+            assertEquals(log.lastHash(), readChain(dir));
+        }
+    }
+
+    @Test
+    void reopenContinuesChainAfterTornTail() throws IOException {
+        AuditTrail trail = new AuditTrail();
+        long expected = 0;
+        try (AuditLog log = new AuditLog(dir, 1 << 20, 8)) {
+            for (int i = 0; i < 5; i++) {
+                expected = trail.appendHash(expected, "event-" + i);
+                log.append("event-" + i);
+            }
+            log.append("torn");
+        }
+        Path segment = AuditLog.segmentFiles(dir).get(0);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 2);
+        }
+        try (AuditLog log = new AuditLog(dir, 1 << 20, 8)) {
+            assertEquals(5, log.lastSequence());
+            expected = trail.appendHash(expected, "event-5");
+            assertEquals(new AuditLog.Appended(6, expected), log.append("event-5"));
+        }
+    }
+
+    @Test
+    void failedCommitFailsEveryWaiterAndClosesTheLog() throws Exception {
+        List<Long> committed = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger failures = new AtomicInteger();
+        AuditLog log = new AuditLog(dir, 64, 1);
+        Files.createDirectories(AuditLog.segmentPath(dir, 50));
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < 100; i++) {
+                    try {
+                        committed.add(log.append("x").sequence());
+                    } catch (IOException | IllegalStateException e) {
+                        failures.incrementAndGet();
+                    }
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+        log.close();
+        assertEquals(49, committed.size());
+        assertTrue(committed.stream().allMatch(sequence -> sequence < 50));
+        assertEquals(400 - 49, failures.get());
+        assertThrows(IllegalStateException.class, () -> log.append("after"));
+    }
+
+    @Test
+    void leftoverSegmentTempFileDoesNotBlockReopen() throws IOException {
+        try (AuditLog log = new AuditLog(dir, 1 << 20, 8)) {
+            log.append("event-0");
+        }
+        Files.write(dir.resolve(AuditLog.segmentPath(dir, 2).getFileName() + ".tmp"), new byte[3]);
+        try (AuditLog log = new AuditLog(dir, 1 << 20, 8)) {
+            assertEquals(1, log.lastSequence());
+            log.append("event-1");
+        }
+        assertEquals(1, AuditLog.segmentFiles(dir).size());
+    }
+
+    // Independent re-walk of the on-disk chain; stops at a sealed segment's footer frame.
+    private static long readChain(Path dir) throws IOException {
+        long hash = 0;
+        long sequence = 0;
+        for (Path path : AuditLog.segmentFiles(dir)) {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                ByteBuffer bytes = ByteBuffer.allocate((int) channel.size());
+                channel.read(bytes, 0);
+                assertEquals(hash, bytes.getLong(2 * Long.BYTES));
+                int at = AuditLog.SEGMENT_HEADER_BYTES;
+                while (at < bytes.limit()) {
+                    if (bytes.getLong(at) == AuditLog.FOOTER_TAG) {
+                        assertEquals(bytes.limit(), at + AuditLog.FOOTER_BYTES);
+                        assertEquals(hash, bytes.getLong(at + AuditLog.RECORD_HEADER_BYTES + 3 * Long.BYTES));
+                        break;
+                    }
+                    int length = bytes.getInt(at + 2 * Long.BYTES);
+                    hash = AuditTrail.appendHash(hash, bytes, at + AuditLog.RECORD_HEADER_BYTES, length);
+                    assertEquals(++sequence, bytes.getLong(at));
+                    assertEquals(hash, bytes.getLong(at + Long.BYTES));
+                    at += AuditLog.RECORD_HEADER_BYTES + length;
+                }
+            }
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,35 @@
+package com.terminalbench.transitcore;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Minimal wall-clock harness for the *Benchmark mains in this package. Each body returns a
+ * checksum that is folded into a volatile sink so the JIT cannot drop the measured work.
+ */
+final class Benchmarks {
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int MEASURED_ROUNDS = 10;
+    private static volatile long sink;
+
+    private Benchmarks() {}
+
+    static double run(String label, long opsPerRound, LongSupplier body) {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            sink += body.getAsLong();
+        }
+        long best = Long.MAX_VALUE;
+        long total = 0;
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            long start = System.nanoTime();
+            sink += body.getAsLong();
+            long elapsed = System.nanoTime() - start;
+            best = Math.min(best, elapsed);
+            total += elapsed;
+        }
+        double avgNsPerOp = (double) total / MEASURED_ROUNDS / opsPerRound;
+        double bestNsPerOp = (double) best / opsPerRound;
+        System.out.printf("%-48s %12.2f ns/op (best %10.2f)  %14.0f ops/s%n",
+                label, avgNsPerOp, bestNsPerOp, 1e9 / avgNsPerOp);
+        return avgNsPerOp;
+    }
+}
@@ -0,0 +1,111 @@
+package com.terminalbench.transitcore;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class BreachIndexTest {
+    @Test
+    void escalatesThroughSeveritiesAsTimePasses() {
+        List<String> events = new ArrayList<>();
+        BreachIndex index = new BreachIndex(1_000, (id, from, to, at) ->
+                events.add(id + ":" + SlaModel.severityName(from) + "->" + SlaModel.severityName(to) + "@" + at));
+        int handle = index.track(7, 1_050, 1_100);
+        index.advance(1_099);
+        assertEquals(List.of(), events);
+        index.advance(1_100);
+        assertEquals(List.of("7:none->minor@1100"), events);
+        index.advance(2_500);
+        assertEquals(List.of("7:none->minor@1100", "7:minor->major@1400", "7:major->critical@2000"), events);
+        assertEquals(SlaModel.SEVERITY_CRITICAL, index.severity(handle));
+    }
+
+    @Test
+    void etaUpdatesEscalateImmediatelyAndCancelStopsCallbacks() {
+        List<Long> escalated = new ArrayList<>();
+        BreachIndex index = new BreachIndex(0, (id, from, to, at) -> escalated.add(id));
+        int late = index.track(1, 100, 500);
+        int cancelled = index.track(2, 100, 200);
+        index.updateEta(late, 900);
+        assertEquals(List.of(1L), escalated);
+        assertEquals(SlaModel.severityCode(900, 500), index.severity(late));
+        index.cancel(cancelled);
+        index.advance(10_000);
+        assertEquals(List.of(1L, 1L), escalated);
+        assertEquals(1, index.size());
+        assertThrows(IllegalArgumentException.class, () -> index.cancel(cancelled));
+    }
+
+    @Test
+    void upcomingMatchesBruteForceAcrossWheelLevels() {
+        Random random = new Random(22);
+        BreachIndex index = new BreachIndex(0, (id, from, to, at) -> {});
+        Map<Long, Integer> handles = new HashMap<>();
+        Map<Long, long[]> shipments = new HashMap<>();
+        for (long id = 0; id < 2_000; id++) {
+            long sla = random.nextInt(200_000);
+            long eta = random.nextInt(200_000);
+            handles.put(id, index.track(id, eta, sla));
+            shipments.put(id, new long[] {eta, sla});
+        }
+        for (int step = 0; step < 40; step++) {
+            index.advance(index.now() + random.nextInt(5_000));
+            long id = random.nextInt(2_000);
+            if (handles.containsKey(id) && random.nextBoolean()) {
+                index.cancel(handles.remove(id));
+                shipments.remove(id);
+            } else if (handles.containsKey(id)) {
+                long eta = index.now() + random.nextInt(2_000) - 1_000;
+                index.updateEta(handles.get(id), eta);
+                shipments.get(id)[0] = eta;
+            }
+            long horizon = random.nextInt(100_000);
+            Map<Long, Long> found = new HashMap<>();
+            index.upcoming(horizon, (shipment, code, at) -> found.put(shipment, at));
+            assertEquals(expected(shipments, index.now(), horizon), found);
+        }
+    }
+
+    @Test
+    void farFutureDeadlinesCascadeThroughEveryLevel() {
+        List<Long> times = new ArrayList<>();
+        long start = (1L << 24) - 10;
+        BreachIndex index = new BreachIndex(start, (id, from, to, at) -> times.add(at));
+        long sla = start + (1L << 25) + 12_345;
+        index.track(1, start, sla);
+        Map<Long, Long> found = new HashMap<>();
+        index.upcoming(5, (shipment, code, at) -> found.put(shipment, at));
+        assertEquals(Map.of(), found);
+        index.upcoming(sla - start, (shipment, code, at) -> found.put(shipment, at));
+        assertEquals(Map.of(1L, sla), found);
+        found.clear();
+        index.upcoming(Long.MAX_VALUE, (shipment, code, at) -> found.put(shipment, at));
+        assertEquals(Map.of(1L, sla), found);
+        index.advance(sla - 1);
+        assertEquals(List.of(), times);
+        index.advance(sla + 900);
+        assertEquals(List.of(sla, sla + 300, sla + 900), times);
+    }
+
+    private static Map<Long, Long> expected(Map<Long, long[]> shipments, long now, long horizon) {
+        Map<Long, Long> expected = new HashMap<>();
+        for (Map.Entry<Long, long[]> entry : shipments.entrySet()) {
+            long eta = entry.getValue()[0];
+            long sla = entry.getValue()[1];
+            byte current = SlaModel.severityCode(Math.max(now, eta), sla);
+            for (long t = Math.max(Math.max(now, eta) + 1, sla); t <= now + horizon && t <= sla + 901; t++) {
+                if (SlaModel.severityCode(t, sla) > current) {
+                    expected.put(entry.getKey(), t);
+                    break;
+                }
+            }
+        }
+        return expected;
+    }
+}
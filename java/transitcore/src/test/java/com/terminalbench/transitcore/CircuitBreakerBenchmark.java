@@ -0,0 +1,58 @@
+package com.terminalbench.transitcore;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the closed-state success path ({@code tryAcquire} plus {@code onSuccess}) of
+ * {@link CircuitBreaker}, on one thread and on every core.
+ * Run with: {@code java -cp target/classes:target/test-classes com.terminalbench.transitcore.CircuitBreakerBenchmark}
+ */
+public final class CircuitBreakerBenchmark {
+    private static final int CALLS = 5_000_000;
+
+    public static void main(String[] args) {
+        CircuitBreaker breaker = new CircuitBreaker(1_024, 100, 0.5, 0.9,
+                TimeUnit.MILLISECONDS.toNanos(500), TimeUnit.SECONDS.toNanos(5), 8);
+        Benchmarks.run("breaker success path, 1 thread", CALLS, () -> {
+            long admitted = 0;
+            for (int i = 0; i < CALLS; i++) {
+                long permit = breaker.tryAcquire();
+                if (permit != CircuitBreaker.REJECTED) {
+                    breaker.onSuccess(permit, 1_000);
+                    admitted += 1;
+                }
+            }
+            return admitted;
+        });
+        int threads = Runtime.getRuntime().availableProcessors();
+        Benchmarks.run("breaker success path, " + threads + " threads", (long) threads * CALLS, () -> {
+            List<Thread> workers = new ArrayList<>();
+            long[] admitted = new long[threads];
+            for (int t = 0; t < threads; t++) {
+                int id = t;
+                workers.add(new Thread(() -> {
+                    for (int i = 0; i < CALLS; i++) {
+                        long permit = breaker.tryAcquire();
+                        if (permit != CircuitBreaker.REJECTED) {
+                            breaker.onSuccess(permit, 1_000);
+                            admitted[id] += 1;
+                        }
+                    }
+                }));
+            }
+            workers.forEach(Thread::start);
+            long total = 0;
+            for (int t = 0; t < threads; t++) {
+                try {
+                    workers.get(t).join();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                total += admitted[t];
+            }
+            return total;
+        });
+    }
+}
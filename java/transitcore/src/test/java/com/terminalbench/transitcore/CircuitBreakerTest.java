@@ -0,0 +1,169 @@
+package com.terminalbench.transitcore;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+class CircuitBreakerTest {
+    private final AtomicLong clock = new AtomicLong();
+
+    private CircuitBreaker breaker() {
+        return new CircuitBreaker(64, 10, 0.5, 0.8, 1_000, 5_000, 3, clock::get);
+    }
+
+    @Test
+    void opensOnceFailureRateCrossesThreshold() {
+        CircuitBreaker breaker = breaker();
+        for (int i = 0; i < 4; i++) {
+            breaker.onFailure(10);
+        }
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+        for (int i = 0; i < 6; i++) {
+            breaker.onSuccess(10);
+        }
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+        breaker.onFailure(10);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+        breaker.onFailure(10);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+        assertEquals(CircuitBreaker.REJECTED, breaker.tryAcquire());
+    }
+
+    @Test
+    void slowCallsAlsoOpenTheBreaker() {
+        CircuitBreaker breaker = breaker();
+        for (int i = 0; i < 10; i++) {
+            breaker.onSuccess(2_000);
+        }
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+    }
+
+    @Test
+    void windowForgetsOldOutcomes() {
+        CircuitBreaker breaker = breaker();
+        for (int i = 0; i < 20; i++) {
+            breaker.onFailure(10);
+            breaker.onSuccess(10);
+            breaker.onSuccess(10);
+            breaker.onSuccess(10);
+        }
+        assertEquals(0.25, breaker.failureRate(), 1e-9);
+        for (int i = 0; i < 64; i++) {
+            breaker.onSuccess(10);
+        }
+        assertEquals(0.0, breaker.failureRate(), 0.0);
+    }
+
+    @Test
+    void halfOpenAdmitsLimitedProbesThenCloses() {
+        CircuitBreaker breaker = breaker();
+        for (int i = 0; i < 10; i++) {
+            breaker.onFailure(10);
+        }
+        clock.set(4_999);
+        assertEquals(CircuitBreaker.REJECTED, breaker.tryAcquire());
+        clock.set(5_000);
+        long probe = breaker.tryAcquire();
+        assertTrue(probe > CircuitBreaker.CLOSED_PERMIT);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.state());
+        assertEquals(probe, breaker.tryAcquire());
+        assertEquals(probe, breaker.tryAcquire());
+        assertEquals(CircuitBreaker.REJECTED, breaker.tryAcquire());
+        for (int i = 0; i < 3; i++) {
+            breaker.onSuccess(probe, 10);
+        }
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+        assertEquals(0.0, breaker.failureRate(), 0.0);
+    }
+
+    @Test
+    void failedProbeReopens() {
+        CircuitBreaker breaker = breaker();
+        for (int i = 0; i < 10; i++) {
+            breaker.onFailure(10);
+        }
+        clock.set(6_000);
+        breaker.onFailure(breaker.tryAcquire(), 10);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+        assertEquals(CircuitBreaker.REJECTED, breaker.tryAcquire());
+        clock.set(11_000);
+        assertTrue(breaker.tryAcquire() > CircuitBreaker.CLOSED_PERMIT);
+    }
+
+    @Test
+    void probesThatNeverReportAreReplacedAfterTheDeadline() {
+        CircuitBreaker breaker = breaker();
+        for (int i = 0; i < 10; i++) {
+            breaker.onFailure(10);
+        }
+        clock.set(5_000);
+        long lost = breaker.tryAcquire();
+        breaker.tryAcquire();
+        breaker.tryAcquire();
+        clock.set(9_999);
+        assertEquals(CircuitBreaker.REJECTED, breaker.tryAcquire());
+        clock.set(10_000);
+        long probe = breaker.tryAcquire();
+        assertTrue(probe > CircuitBreaker.CLOSED_PERMIT);
+        assertTrue(probe != lost);
+        breaker.onSuccess(lost, 10);
+        breaker.onSuccess(lost, 10);
+        breaker.onSuccess(lost, 10);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.state());
+        breaker.onSuccess(probe, 10);
+        breaker.onSuccess(breaker.tryAcquire(), 10);
+        breaker.onSuccess(breaker.tryAcquire(), 10);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+    }
+
+    @Test
+    void lateClosedStateResultsDoNotCountAsProbes() {
+        CircuitBreaker breaker = breaker();
+        long late = breaker.tryAcquire();
+        for (int i = 0; i < 10; i++) {
+            breaker.onFailure(10);
+        }
+        clock.set(5_000);
+        long probe = breaker.tryAcquire();
+        for (int i = 0; i < 3; i++) {
+            breaker.onSuccess(late, 10);
+        }
+        breaker.onFailure(late, 10);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.state());
+        breaker.onFailure(probe, 10);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+        assertThrows(IllegalArgumentException.class, () -> breaker.onSuccess(CircuitBreaker.REJECTED, 10));
+    }
+
+    @Test
+    void concurrentRecordersKeepCountsConsistent() throws InterruptedException {
+        CircuitBreaker breaker = new CircuitBreaker(1_024, 1_024, 1.0, 1.0, Long.MAX_VALUE, 1_000, 1);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            int id = t;
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < 100_000; i++) {
+                    if (id == 0 && i % 4 == 0) {
+                        breaker.onFailure(1);
+                    } else {
+                        breaker.onSuccess(1);
+                    }
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        for (int i = 0; i < 1_024; i++) {
+            breaker.onSuccess(1);
+        }
+        assertEquals(0.0, breaker.failureRate(), 0.0);
+        assertThrows(IllegalArgumentException.class, () -> new CircuitBreaker(100, 10, 0.5, 0.5, 1, 1, 1));
+    }
+}
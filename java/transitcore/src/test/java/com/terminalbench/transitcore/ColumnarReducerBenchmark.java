@@ -0,0 +1,59 @@
+package com.terminalbench.transitcore;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Compares one-pass columnar aggregation against the per-call scalar loops dashboards run today.
+ * Run with: {@code java -cp target/classes:target/test-classes com.terminalbench.transitcore.ColumnarReducerBenchmark}
+ */
+public final class ColumnarReducerBenchmark {
+    public static void main(String[] args) {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 4_000_000;
+        Random random = new Random(42);
+        double[] samples = new double[size];
+        double[] capacity = new double[size];
+        for (int i = 0; i < size; i++) {
+            samples[i] = random.nextDouble() * 500.0;
+            capacity[i] = 250.0 + random.nextDouble() * 500.0;
+        }
+        StatisticsReducer reducer = new StatisticsReducer();
+        ColumnarReducer sequential = new ColumnarReducer(ForkJoinPool.commonPool(), Integer.MAX_VALUE);
+        ColumnarReducer parallel = new ColumnarReducer();
+
+        Benchmarks.run("per-call loops (mean/var/min/max)", size, () -> {
+            double sum = 0;
+            for (double v : samples) {
+                sum += v;
+            }
+            double mean = sum / size;
+            double squares = 0;
+            for (double v : samples) {
+                squares += (v - mean) * (v - mean);
+            }
+            double min = Double.POSITIVE_INFINITY;
+            for (double v : samples) {
+                min = Math.min(min, v);
+            }
+            double max = Double.NEGATIVE_INFINITY;
+            for (double v : samples) {
+                max = Math.max(max, v);
+            }
+            return Double.doubleToLongBits(mean + squares + min + max);
+        });
+        Benchmarks.run("columnar single pass (sequential)", size,
+                () -> Double.doubleToLongBits(sequential.reduce(samples).variance()));
+        Benchmarks.run("columnar single pass (fork-join)", size,
+                () -> Double.doubleToLongBits(parallel.reduce(samples).variance()));
+
+        Benchmarks.run("per-call boundedRatio loop", size, () -> {
+            double sum = 0;
+            for (int i = 0; i < size; i++) {
+                sum += reducer.boundedRatio(samples[i], capacity[i]);
+            }
+            return Double.doubleToLongBits(sum);
+        });
+        Benchmarks.run("columnar boundedRatio stats (fork-join)", size,
+                () -> Double.doubleToLongBits(parallel.reduceBoundedRatios(samples, capacity).mean()));
+    }
+}
@@ -0,0 +1,74 @@
+package com.terminalbench.transitcore;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.jupiter.api.Test;
+
+class ColumnarReducerTest {
+    @Test
+    void smallColumnAggregates() {
+        ColumnarReducer reducer = new ColumnarReducer();
+        ColumnarReducer.ColumnStats stats = reducer.reduce(new double[] {1, 3, 5, 7, 9});
+        assertEquals(5, stats.count());
+        assertEquals(5.0, stats.mean(), 1e-9);
+        assertEquals(8.0, stats.variance(), 1e-9);
+        assertEquals(1.0, stats.min(), 1e-9);
+        assertEquals(9.0, stats.max(), 1e-9);
+        assertEquals(25.0, stats.sum(), 1e-9);
+
+        ColumnarReducer.ColumnStats longs = reducer.reduce(new long[] {4, -2, 10});
+        assertEquals(4.0, longs.mean(), 1e-9);
+        assertEquals(-2.0, longs.min(), 1e-9);
+        assertEquals(10.0, longs.max(), 1e-9);
+    }
+
+    @Test
+    void parallelMatchesScalarOnLargeColumns() {
+        Random random = new Random(5);
+        double[] values = new double[300_001];
+        double[] denominators = new double[values.length];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = 1_000_000.0 + random.nextGaussian() * 3.0;
+            denominators[i] = 500_000.0 + random.nextDouble() * 2_000_000.0;
+        }
+        double sum = 0;
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        for (double v : values) {
+            sum += v;
+            min = Math.min(min, v);
+            max = Math.max(max, v);
+        }
+        double mean = sum / values.length;
+        double squares = 0;
+        for (double v : values) {
+            squares += (v - mean) * (v - mean);
+        }
+
+        ColumnarReducer reducer = new ColumnarReducer(ForkJoinPool.commonPool(), 1_024);
+        ColumnarReducer.ColumnStats stats = reducer.reduce(values);
+        assertEquals(values.length, stats.count());
+        assertEquals(mean, stats.mean(), 1e-6);
+        assertEquals(squares / values.length, stats.variance(), 1e-6);
+        assertEquals(min, stats.min(), 0.0);
+        assertEquals(max, stats.max(), 0.0);
+
+        StatisticsReducer scalar = new StatisticsReducer();
+        double ratioSum = 0;
+        for (int i = 0; i < values.length; i++) {
+            ratioSum += scalar.boundedRatio(values[i], denominators[i]);
+        }
+        assertEquals(ratioSum / values.length, reducer.reduceBoundedRatios(values, denominators).mean(), 1e-9);
+    }
+
+    @Test
+    void rejectsEmptyAndMismatchedColumns() {
+        ColumnarReducer reducer = new ColumnarReducer();
+        assertThrows(IllegalArgumentException.class, () -> reducer.reduce(new double[0]));
+        assertThrows(IllegalArgumentException.class,
+                () -> reducer.reduceBoundedRatios(new double[2], new double[3]));
+    }
+}
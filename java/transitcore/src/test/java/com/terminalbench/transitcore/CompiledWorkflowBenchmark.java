@@ -0,0 +1,52 @@
+package com.terminalbench.transitcore;
+
+import java.util.Random;
+
+/**
+ * Transition checks through {@link WorkflowOrchestrator#transitionAllowed} against the
+ * {@link CompiledWorkflow} string adapter, int-coded checks and bulk fire.
+ * Run with: {@code java -cp target/classes:target/test-classes com.terminalbench.transitcore.CompiledWorkflowBenchmark [instances]}
+ */
+public final class CompiledWorkflowBenchmark {
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        WorkflowOrchestrator orchestrator = new WorkflowOrchestrator();
+        CompiledWorkflow compiled = CompiledWorkflow.compile(orchestrator);
+        String[] names = {"drafted", "validated", "capacity_checked", "dispatched", "reported", "canceled"};
+        Random random = new Random(23);
+        String[] fromNames = new String[n];
+        String[] toNames = new String[n];
+        int[] from = new int[n];
+        int[] to = new int[n];
+        int[] events = new int[n];
+        for (int i = 0; i < n; i++) {
+            fromNames[i] = names[random.nextInt(names.length)];
+            toNames[i] = names[random.nextInt(names.length)];
+            from[i] = compiled.stateId(fromNames[i]);
+            to[i] = compiled.stateId(toNames[i]);
+            events[i] = random.nextInt(compiled.eventCount());
+        }
+        long[] bits = new long[(n + 63) >>> 6];
+        int[] states = new int[n];
+
+        Benchmarks.run("orchestrator transitionAllowed", n, () -> {
+            long allowed = 0;
+            for (int i = 0; i < n; i++) {
+                allowed += orchestrator.transitionAllowed(fromNames[i], toNames[i]) ? 1 : 0;
+            }
+            return allowed;
+        });
+        Benchmarks.run("compiled transitionAllowed (strings)", n, () -> {
+            long allowed = 0;
+            for (int i = 0; i < n; i++) {
+                allowed += compiled.transitionAllowed(fromNames[i], toNames[i]) ? 1 : 0;
+            }
+            return allowed;
+        });
+        Benchmarks.run("compiled validate (bulk)", n, () -> compiled.validate(from, to, bits));
+        Benchmarks.run("compiled fire (bulk)", n, () -> {
+            System.arraycopy(from, 0, states, 0, n);
+            return compiled.fire(states, events);
+        });
+    }
+}
@@ -0,0 +1,53 @@
+package com.terminalbench.transitcore;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class CompiledWorkflowTest {
+    private static final List<String> NAMES = List.of(
+            "drafted", "validated", "capacity_checked", "dispatched", "reported", "canceled", "unknown");
+
+    @Test
+    void stringAdapterMatchesOrchestrator() {
+        WorkflowOrchestrator orchestrator = new WorkflowOrchestrator();
+        CompiledWorkflow compiled = CompiledWorkflow.compile(orchestrator);
+        for (String from : NAMES) {
+            for (String to : NAMES) {
+                assertEquals(orchestrator.transitionAllowed(from, to), compiled.transitionAllowed(from, to), from + "->" + to);
+            }
+        }
+        for (String event : List.of("validate", "capacity_ok", "dispatch", "publish", "cancel", "bogus")) {
+            assertEquals(orchestrator.nextStateFor(event), compiled.nextStateFor(event), event);
+        }
+        assertFalse(compiled.allowed(CompiledWorkflow.NO_STATE, compiled.stateId("validated")));
+    }
+
+    @Test
+    void bulkValidateAndFire() {
+        CompiledWorkflow compiled = CompiledWorkflow.compile(new WorkflowOrchestrator());
+        int drafted = compiled.stateId("drafted");
+        int validated = compiled.stateId("validated");
+        int dispatched = compiled.stateId("dispatched");
+        int reported = compiled.stateId("reported");
+        int[] from = new int[70];
+        int[] to = new int[70];
+        for (int i = 0; i < from.length; i++) {
+            from[i] = drafted;
+            to[i] = i % 2 == 0 ? validated : dispatched;
+        }
+        long[] bits = new long[2];
+        assertEquals(35, compiled.validate(from, to, bits));
+        assertEquals(0x5555_5555_5555_5555L, bits[0]);
+        assertEquals(0b01_0101L, bits[1]);
+
+        int[] states = {dispatched, dispatched, reported};
+        int[] events = {compiled.eventId("publish"), compiled.eventId("cancel"), compiled.eventId("publish")};
+        assertEquals(1, compiled.fire(states, events));
+        assertArrayEquals(new int[] {reported, dispatched, reported}, states);
+        assertEquals(70, compiled.fire(from, compiled.eventId("cancel")));
+    }
+}
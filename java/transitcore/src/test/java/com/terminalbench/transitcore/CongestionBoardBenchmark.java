@@ -0,0 +1,92 @@
+package com.terminalbench.transitcore;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Concurrent congestion reporting and hub selection on {@link CongestionBoard}, next to callers
+ * copying a synchronized map for every {@link RoutingHeuristics#selectHub} call.
+ * Run with: {@code java -cp target/classes:target/test-classes com.terminalbench.transitcore.CongestionBoardBenchmark [hubs]}
+ */
+public final class CongestionBoardBenchmark {
+    private static final int OPS_PER_THREAD = 200_000;
+
+    public static void main(String[] args) throws Exception {
+        int hubs = args.length > 0 ? Integer.parseInt(args[0]) : 256;
+        int threads = Math.max(2, Runtime.getRuntime().availableProcessors());
+        String[] names = new String[hubs];
+        for (int i = 0; i < hubs; i++) {
+            names[i] = "hub-" + i;
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            for (int readPercent : new int[] {10, 50, 90}) {
+                CongestionBoard board = new CongestionBoard(TimeUnit.MILLISECONDS.toNanos(5));
+                Benchmarks.run("board, " + threads + " threads, " + readPercent + "% reads",
+                        (long) threads * OPS_PER_THREAD, () -> fanOut(executor, threads, thread -> {
+                            long checksum = 0;
+                            for (int i = 0; i < OPS_PER_THREAD; i++) {
+                                int hub = (i * 31 + thread) % hubs;
+                                if (i % 100 < readPercent) {
+                                    checksum += board.selectHub().length();
+                                } else {
+                                    board.report(names[hub], (i & 1) == 0 ? 0.01 : -0.005);
+                                }
+                            }
+                            return checksum;
+                        }));
+
+                Map<String, Double> shared = new HashMap<>();
+                RoutingHeuristics heuristics = new RoutingHeuristics();
+                Benchmarks.run("copied map + selectHub, " + readPercent + "% reads",
+                        (long) threads * OPS_PER_THREAD / 100, () -> fanOut(executor, threads, thread -> {
+                            long checksum = 0;
+                            for (int i = 0; i < OPS_PER_THREAD / 100; i++) {
+                                int hub = (i * 31 + thread) % hubs;
+                                if (i % 100 < readPercent) {
+                                    Map<String, Double> copy;
+                                    synchronized (shared) {
+                                        copy = new HashMap<>(shared);
+                                    }
+                                    checksum += heuristics.selectHub(copy).length();
+                                } else {
+                                    synchronized (shared) {
+                                        shared.merge(names[hub], (i & 1) == 0 ? 0.01 : -0.005, Double::sum);
+                                    }
+                                }
+                            }
+                            return checksum;
+                        }));
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private interface Worker {
+        long run(int thread);
+    }
+
+    private static long fanOut(ExecutorService executor, int threads, Worker worker) {
+        List<Future<Long>> futures = new ArrayList<>(threads);
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            futures.add(executor.submit(() -> worker.run(thread)));
+        }
+        long checksum = 0;
+        try {
+            for (Future<Long> future : futures) {
+                checksum += future.get();
+            }
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+        return checksum;
+    }
+}
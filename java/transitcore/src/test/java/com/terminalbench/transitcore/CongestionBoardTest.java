@@ -0,0 +1,75 @@
+package com.terminalbench.transitcore;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+class CongestionBoardTest {
+    @Test
+    void ranksLikeSelectHubIntends() {
+        AtomicLong clock = new AtomicLong();
+        CongestionBoard board = new CongestionBoard(100, clock::get);
+        board.report("west", 0.23);
+        board.report("alpha", 0.17);
+        board.report("east", 0.10);
+        board.report("east", 0.07);
+        CongestionBoard.Snapshot snapshot = board.publish();
+        assertEquals("alpha", snapshot.leastCongested());
+        assertEquals(List.of("alpha", "east"), snapshot.leastCongested(2));
+        assertEquals(List.of("west"), snapshot.mostCongested(1));
+        assertEquals(0.23, snapshot.congestion("west"), 1e-12);
+        assertTrue(Double.isNaN(snapshot.congestion("missing")));
+    }
+
+    @Test
+    void snapshotIsRebuiltOnlyOnceStale() {
+        AtomicLong clock = new AtomicLong();
+        CongestionBoard board = new CongestionBoard(100, clock::get);
+        assertEquals("unassigned", board.selectHub());
+        board.report("north", 0.9);
+        board.report("south", 0.2);
+        CongestionBoard.Snapshot first = board.publish();
+        board.report("south", 1.0);
+        clock.set(99);
+        assertSame(first, board.snapshot());
+        assertEquals("south", board.selectHub());
+        clock.set(100);
+        assertEquals("north", board.selectHub());
+        assertEquals(100, board.snapshot().publishedAtNanos());
+    }
+
+    @Test
+    void concurrentReportsAreNotLost() throws InterruptedException {
+        CongestionBoard board = new CongestionBoard(1);
+        List<Thread> writers = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            Thread writer = new Thread(() -> {
+                for (int i = 0; i < 100_000; i++) {
+                    board.report("hub-" + (i & 7), 1.0);
+                    if ((i & 1023) == 0) {
+                        board.snapshot();
+                    }
+                }
+            });
+            writers.add(writer);
+            writer.start();
+        }
+        for (Thread writer : writers) {
+            writer.join();
+        }
+        CongestionBoard.Snapshot snapshot = board.publish();
+        assertEquals(8, snapshot.size());
+        assertEquals(50_000.0, snapshot.congestion("hub-3"), 0.0);
+    }
+
+    @Test
+    void rejectsNonPositiveStaleness() {
+        assertThrows(IllegalArgumentException.class, () -> new CongestionBoard(0));
+    }
+}
@@ -0,0 +1,110 @@
+package com.terminalbench.transitcore;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class EventTimeWindowsTest {
+    private record Fired(long key, long start, long end, long count, double sum, double min, double max, boolean late) {}
+
+    private final List<Fired> fired = new ArrayList<>();
+
+    private void collect(long key, long start, long end, long count, double sum, double min, double max, boolean late) {
+        fired.add(new Fired(key, start, end, count, sum, min, max, late));
+    }
+
+    @Test
+    void tumblingWindowsFireWhenWatermarkPassesTheirEnd() {
+        EventTimeWindows windows = EventTimeWindows.tumbling(60, 0, this::collect);
+        windows.add(1, 10, 2.0);
+        windows.add(1, 50, 4.0);
+        windows.add(2, 59, 1.0);
+        windows.add(1, 61, 8.0);
+        windows.advanceWatermark(59);
+        assertTrue(fired.isEmpty());
+        windows.advanceWatermark(60);
+        assertEquals(2, fired.size());
+        assertTrue(fired.contains(new Fired(1, 0, 60, 2, 6.0, 2.0, 4.0, false)));
+        assertTrue(fired.contains(new Fired(2, 0, 60, 1, 1.0, 1.0, 1.0, false)));
+        assertEquals(1, windows.openWindows());
+    }
+
+    @Test
+    void slidingWindowsCountEachEventInEveryCoveringWindow() {
+        EventTimeWindows windows = new EventTimeWindows(60, 20, 0, this::collect);
+        windows.add(7, 45, 1.0);
+        windows.advanceWatermark(200);
+        assertEquals(List.of(
+                new Fired(7, 0, 60, 1, 1.0, 1.0, 1.0, false),
+                new Fired(7, 20, 80, 1, 1.0, 1.0, 1.0, false),
+                new Fired(7, 40, 100, 1, 1.0, 1.0, 1.0, false)), fired);
+        assertEquals(0, windows.openWindows());
+    }
+
+    @Test
+    void lateEventsRefireWithinLatenessAndAreDroppedAfter() {
+        EventTimeWindows windows = EventTimeWindows.tumbling(60, 30, this::collect);
+        windows.add(1, 5, 1.0);
+        windows.advanceWatermark(70);
+        windows.add(1, 6, 3.0);
+        assertEquals(new Fired(1, 0, 60, 2, 4.0, 1.0, 3.0, true), fired.get(fired.size() - 1));
+        windows.advanceWatermark(90);
+        windows.add(1, 7, 5.0);
+        assertEquals(1, windows.dropped());
+        assertEquals(2, fired.size());
+    }
+
+    @Test
+    void lateFirstEventInAWindowIsEmittedOnce() {
+        EventTimeWindows windows = EventTimeWindows.tumbling(60, 120, this::collect);
+        windows.add(1, 130, 1.0);
+        windows.advanceWatermark(200);
+        fired.clear();
+        windows.add(2, 70, 2.0);
+        assertEquals(List.of(new Fired(2, 60, 120, 1, 2.0, 2.0, 2.0, true)), fired);
+        windows.advanceWatermark(210);
+        assertEquals(1, fired.size());
+    }
+
+    @Test
+    void stateStaysFlatOnLongStreams() {
+        long[] total = new long[1];
+        EventTimeWindows windows = new EventTimeWindows(60, 10, 20, (k, s, e, c, sum, mn, mx, late) -> total[0] += c);
+        for (long ts = 0; ts < 1_000_000; ts++) {
+            windows.add(ts % 1_000, ts, 1.0);
+            if (ts % 10 == 0) {
+                windows.advanceWatermark(ts - 5);
+            }
+            assertTrue(windows.openWindows() <= 10, "open " + windows.openWindows());
+        }
+        windows.advanceWatermark(Long.MAX_VALUE / 2);
+        assertEquals(0, windows.liveEntries());
+        assertEquals(6_000_000, total[0]);
+        assertThrows(IllegalArgumentException.class, () -> new EventTimeWindows(60, 25, 0, this::collect));
+    }
+
+    @Test
+    void evictionReleasesBurstCapacity() {
+        EventTimeWindows windows = EventTimeWindows.tumbling(60, 0, this::collect);
+        for (long ts = 0; ts < 6_000; ts += 60) {
+            windows.add(1, ts, 1.0);
+        }
+        windows.advanceWatermark(10_000);
+        assertEquals(0, windows.openWindows());
+        assertEquals(2, windows.recycledWindows());
+
+        EventTimeWindows.KeyedAggregates state = new EventTimeWindows.KeyedAggregates();
+        for (long key = 0; key < 10_000; key++) {
+            state.update(key, 1.0);
+        }
+        state.clear();
+        assertEquals(32_768, state.capacity());
+        state.update(1, 1.0);
+        state.clear();
+        assertEquals(16, state.capacity());
+    }
+}
@@ -0,0 +1,85 @@
+package com.terminalbench.transitcore;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+class FairSchedulerTest {
+    @Test
+    void servesBackloggedTenantsInProportionToWeight() {
+        FairScheduler<String> scheduler = new FairScheduler<>(new QueueGovernor.QueuePolicy(1_000, false));
+        scheduler.setWeight("gold", 3);
+        for (int i = 0; i < 300; i++) {
+            scheduler.offer("gold", "gold");
+            scheduler.offer("bronze", "bronze");
+        }
+        Map<String, Integer> served = new HashMap<>();
+        for (int i = 0; i < 200; i++) {
+            served.merge(scheduler.poll(), 1, Integer::sum);
+        }
+        assertEquals(150, served.get("gold"));
+        assertEquals(50, served.get("bronze"));
+    }
+
+    @Test
+    void noisyTenantOnlyThrottlesItself() {
+        FairScheduler<Integer> scheduler = new FairScheduler<>(new QueueGovernor.QueuePolicy(4, false));
+        for (int i = 0; i < 10; i++) {
+            scheduler.offer("noisy", i);
+        }
+        assertTrue(scheduler.offer("quiet", 99));
+        assertEquals(6, scheduler.stats("noisy").throttled());
+        assertEquals(0, scheduler.poll());
+        assertEquals(99, scheduler.poll());
+    }
+
+    @Test
+    void dropOldestEvictsWithinTheTenant() {
+        FairScheduler<Integer> scheduler = new FairScheduler<>(new QueueGovernor.QueuePolicy(2, true));
+        scheduler.offer("a", 1);
+        scheduler.offer("a", 2);
+        scheduler.offer("a", 3);
+        assertEquals(1, scheduler.stats("a").dropped());
+        assertEquals(2, scheduler.poll());
+        assertEquals(3, scheduler.poll());
+        assertNull(scheduler.poll());
+        assertEquals(0, scheduler.activeTenants());
+    }
+
+    @Test
+    void idleTenantsLeaveTheRing() {
+        FairScheduler<Integer> scheduler = new FairScheduler<>(new QueueGovernor.QueuePolicy(8, false));
+        for (int t = 0; t < 50_000; t++) {
+            scheduler.setWeight("tenant-" + t, 1 + t % 4);
+        }
+        scheduler.offer("tenant-7", 1);
+        scheduler.offer("tenant-42", 2);
+        assertEquals(2, scheduler.activeTenants());
+        assertEquals(1, scheduler.poll());
+        assertEquals(2, scheduler.poll());
+        assertEquals(0, scheduler.size());
+    }
+
+    @Test
+    void reportsWaitTimes() {
+        AtomicLong clock = new AtomicLong(1_000);
+        FairScheduler<Integer> scheduler = new FairScheduler<>(new QueueGovernor.QueuePolicy(8, false), clock::get);
+        scheduler.offer("a", 1);
+        scheduler.offer("a", 2);
+        clock.set(1_500);
+        scheduler.poll();
+        clock.set(2_500);
+        scheduler.poll();
+        FairScheduler.TenantStats stats = scheduler.stats("a");
+        assertEquals(2, stats.dequeued());
+        assertEquals(1_000.0, stats.meanWaitNanos(), 0.0);
+        assertEquals(1_500, stats.maxWaitNanos());
+        assertThrows(IllegalArgumentException.class, () -> scheduler.setWeight("a", 0));
+    }
+}
@@ -0,0 +1,46 @@
+package com.terminalbench.transitcore;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Audit dedup through {@link AuditTrail#fingerprint} plus a {@code HashSet<String>} against the
+ * streamed 128-bit hash into an off-heap {@link FingerprintIndex}.
+ * Run with: {@code java -cp target/classes:target/test-classes com.terminalbench.transitcore.FingerprintIndexBenchmark [events]}
+ */
+public final class FingerprintIndexBenchmark {
+    public static void main(String[] args) {
+        int events = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        String[] tenants = new String[64];
+        for (int i = 0; i < tenants.length; i++) {
+            tenants[i] = "tenant-" + i;
+        }
+        String[] traces = new String[events / 2];
+        for (int i = 0; i < traces.length; i++) {
+            traces[i] = "trace-" + Long.toHexString(i * 0x9E37_79B9L);
+        }
+        String[] types = {"dispatch.accepted", "dispatch.settled", "route.changed"};
+        AuditTrail trail = new AuditTrail();
+
+        Benchmarks.run("string fingerprint + HashSet", events, () -> {
+            Set<String> seen = new HashSet<>();
+            long fresh = 0;
+            for (int i = 0; i < events; i++) {
+                if (seen.add(trail.fingerprint(tenants[i & 63], traces[i % traces.length], types[i % 3]))) {
+                    fresh += 1;
+                }
+            }
+            return fresh;
+        });
+        Benchmarks.run("streamed 128-bit + FingerprintIndex", events, () -> {
+            FingerprintIndex index = new FingerprintIndex(events);
+            long fresh = 0;
+            for (int i = 0; i < events; i++) {
+                if (index.firstSeen(tenants[i & 63], traces[i % traces.length], types[i % 3])) {
+                    fresh += 1;
+                }
+            }
+            return fresh;
+        });
+    }
+}
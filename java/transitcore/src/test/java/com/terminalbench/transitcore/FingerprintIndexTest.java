@@ -0,0 +1,86 @@
+package com.terminalbench.transitcore;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+class FingerprintIndexTest {
+    @Test
+    void streamedHashMatchesHashOfFingerprintString() {
+        AuditTrail trail = new AuditTrail();
+        FingerprintIndex.Hasher streamed = new FingerprintIndex.Hasher();
+        FingerprintIndex.Hasher built = new FingerprintIndex.Hasher();
+        String[][] cases = {
+                {"tenant-a", "trace-1", "dispatch.accepted"},
+                {"  tenant-a", "trace-1", "dispatch.accepted \t"},
+                {" ", " ", " "},
+                {"", "", ""},
+                {"t", " inner ", "e"},
+                {"tenant-a", "trace\t1", "e\u0001\n"},
+                {"\u0000tenant", "trace \t\u001f 1", "\r"},
+        };
+        for (String[] parts : cases) {
+            streamed.hash(parts[0], parts[1], parts[2]);
+            built.hash(trail.fingerprint(parts[0], parts[1], parts[2]));
+            assertEquals(built.high(), streamed.high());
+            assertEquals(built.low(), streamed.low());
+        }
+    }
+
+    @Test
+    void distinguishesFieldBoundaries() {
+        FingerprintIndex.Hasher first = new FingerprintIndex.Hasher();
+        FingerprintIndex.Hasher second = new FingerprintIndex.Hasher();
+        first.hash("ab", "c", "d");
+        second.hash("a", "bc", "d");
+        assertNotEquals(first.low(), second.low());
+    }
+
+    @Test
+    void distinguishesInteriorTabsAndControlCharacters() {
+        FingerprintIndex index = new FingerprintIndex(16);
+        assertTrue(index.firstSeen("tenant-a", "trace 1", "dispatch"));
+        assertTrue(index.firstSeen("tenant-a", "trace\t1", "dispatch"));
+        assertTrue(index.firstSeen("tenant-a", "trace\u00011", "dispatch"));
+        assertTrue(index.firstSeen("tenant-a", "trace  1", "dispatch"));
+        assertFalse(index.firstSeen("tenant-a", "trace\t1", "dispatch\t\u0002 "));
+        assertEquals(4, index.size());
+    }
+
+    @Test
+    void deduplicatesLikeAStringSet() {
+        AuditTrail trail = new AuditTrail();
+        FingerprintIndex index = new FingerprintIndex(16);
+        Set<String> exact = new HashSet<>();
+        Random random = new Random(9);
+        for (int i = 0; i < 200_000; i++) {
+            String tenant = "tenant-" + random.nextInt(50);
+            String trace = "trace-" + random.nextInt(2_000);
+            String event = random.nextBoolean() ? "dispatch.accepted" : "dispatch.settled";
+            assertEquals(exact.add(trail.fingerprint(tenant, trace, event)), index.firstSeen(tenant, trace, event));
+        }
+        assertEquals(exact.size(), index.size());
+        assertTrue(index.capacity() >= index.size() * 4 / 3);
+    }
+
+    @Test
+    void zeroFingerprintIsStorable() {
+        FingerprintIndex index = new FingerprintIndex(4);
+        assertTrue(index.addIfAbsent(0, 0));
+        assertFalse(index.addIfAbsent(0, 0));
+        assertTrue(index.contains(0, 0));
+        assertFalse(index.contains(1, 0));
+    }
+
+    @Test
+    void rejectsNonPositiveSizing() {
+        assertThrows(IllegalArgumentException.class, () -> new FingerprintIndex(0));
+    }
+}
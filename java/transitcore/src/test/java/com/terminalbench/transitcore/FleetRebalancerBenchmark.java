@@ -0,0 +1,39 @@
+package com.terminalbench.transitcore;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * A planner loop over {@link CapacityBalancer#rebalance} against the columnar
+ * {@link FleetRebalancer}, sequential and parallel, with and without a global capacity.
+ * Run with: {@code java -cp target/classes:target/test-classes com.terminalbench.transitcore.FleetRebalancerBenchmark [entries]}
+ */
+public final class FleetRebalancerBenchmark {
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        Random random = new Random(5);
+        int[] available = random.ints(n, 0, 500).toArray();
+        int[] demand = random.ints(n, 0, 500).toArray();
+        int[] reserve = random.ints(n, 0, 50).toArray();
+        CapacityBalancer balancer = new CapacityBalancer();
+
+        Benchmarks.run("scalar rebalance loop", n, () -> {
+            int[] out = new int[n];
+            long sum = 0;
+            for (int i = 0; i < n; i++) {
+                out[i] = balancer.rebalance(available[i], demand[i], reserve[i]);
+                sum += out[i];
+            }
+            return sum;
+        });
+        FleetRebalancer sequential = new FleetRebalancer(new ForkJoinPool(1), Integer.MAX_VALUE);
+        FleetRebalancer parallel = new FleetRebalancer();
+        Benchmarks.run("batch, sequential", n, () -> sequential.rebalance(available, demand, reserve)[n - 1]);
+        Benchmarks.run("batch, common pool", n, () -> parallel.rebalance(available, demand, reserve)[n - 1]);
+        long capacity = (long) n * 100;
+        Benchmarks.run("batch + global capacity, sequential", n,
+                () -> sequential.rebalance(available, demand, reserve, capacity)[n - 1]);
+        Benchmarks.run("batch + global capacity, common pool", n,
+                () -> parallel.rebalance(available, demand, reserve, capacity)[n - 1]);
+    }
+}
@@ -0,0 +1,65 @@
+package com.terminalbench.transitcore;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.jupiter.api.Test;
+
+class FleetRebalancerTest {
+    @Test
+    void batchMatchesScalarRebalance() {
+        Random random = new Random(4);
+        int n = 10_000;
+        int[] available = random.ints(n, -5, 200).toArray();
+        int[] demand = random.ints(n, -5, 200).toArray();
+        int[] reserve = random.ints(n, 0, 20).toArray();
+        CapacityBalancer balancer = new CapacityBalancer();
+        int[] batch = new FleetRebalancer(new ForkJoinPool(4), 64).rebalance(available, demand, reserve);
+        for (int i = 0; i < n; i++) {
+            assertEquals(balancer.rebalance(available[i], demand[i], reserve[i]), batch[i]);
+        }
+    }
+
+    @Test
+    void globalCapacityIsSharedMaxMinFairly() {
+        FleetRebalancer rebalancer = new FleetRebalancer();
+        int[] available = {100, 100, 100, 100};
+        int[] demand = {2, 50, 50, 9};
+        int[] reserve = {0, 0, 0, 0};
+        int[] caps = rebalancer.rebalance(available, demand, reserve);
+        int[] shared = rebalancer.rebalance(available, demand, reserve, 40);
+        assertArrayEquals(new int[] {caps[0], 15, 14, caps[3]}, shared);
+        assertArrayEquals(caps, rebalancer.rebalance(available, demand, reserve, 1_000));
+        assertArrayEquals(new int[] {0, 0, 0, 0}, rebalancer.rebalance(available, demand, reserve, 0));
+    }
+
+    @Test
+    void parallelSharingMatchesSequential() {
+        Random random = new Random(8);
+        int n = 50_000;
+        int[] available = random.ints(n, 0, 500).toArray();
+        int[] demand = random.ints(n, 0, 500).toArray();
+        int[] reserve = random.ints(n, 0, 50).toArray();
+        long capacity = 3_000_000;
+        int[] sequential = new FleetRebalancer(new ForkJoinPool(1), Integer.MAX_VALUE).rebalance(available, demand, reserve, capacity);
+        int[] parallel = new FleetRebalancer(new ForkJoinPool(4), 64).rebalance(available, demand, reserve, capacity);
+        assertArrayEquals(sequential, parallel);
+        assertEquals(capacity, Arrays.stream(parallel).asLongStream().sum());
+        int[] caps = new FleetRebalancer().rebalance(available, demand, reserve);
+        for (int i = 0; i < n; i++) {
+            assertTrue(parallel[i] <= caps[i]);
+        }
+    }
+
+    @Test
+    void rejectsMismatchedColumns() {
+        FleetRebalancer rebalancer = new FleetRebalancer();
+        assertThrows(IllegalArgumentException.class, () -> rebalancer.rebalance(new int[2], new int[3], new int[2]));
+        assertThrows(IllegalArgumentException.class, () -> rebalancer.rebalance(new int[1], new int[1], new int[1], -1));
+    }
+}
@@ -0,0 +1,76 @@
+package com.terminalbench.transitcore;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class IdempotencyIndexTest {
+    @Test
+    void remembersKeysForAtLeastOneWindow() {
+        IdempotencyIndex index = new IdempotencyIndex(100, 1_000, 0.01);
+        assertTrue(index.firstSeen("order-1", 10));
+        assertFalse(index.firstSeen("order-1", 50));
+        assertFalse(index.firstSeen("order-1", 109));
+        assertTrue(index.firstSeen("order-2", 120));
+        assertFalse(index.firstSeen("order-1", 150));
+        assertTrue(index.firstSeen("order-1", 320));
+        assertEquals(3, index.duplicates());
+    }
+
+    @Test
+    void memoryStaysFlatOnLongStreams() {
+        IdempotencyIndex index = new IdempotencyIndex(10_000, 10_000, 0.01);
+        long afterFirstWindows = 0;
+        for (long version = 0; version < 2_000_000; version++) {
+            index.firstSeen("evt-" + version, version);
+            if (version == 40_000) {
+                afterFirstWindows = index.memoryBytes();
+            }
+        }
+        assertEquals(afterFirstWindows, index.memoryBytes());
+        assertTrue(index.size() <= 20_000);
+    }
+
+    @Test
+    void burstCapacityIsReleasedOnceItsGenerationIsRecycled() {
+        IdempotencyIndex index = new IdempotencyIndex(100, 100, 0.01);
+        index.firstSeen("steady", 0);
+        long baseline = index.memoryBytes();
+        for (int i = 0; i < 10_000; i++) {
+            index.firstSeen("burst-" + i, 10);
+        }
+        assertTrue(index.memoryBytes() > baseline);
+        index.firstSeen("later", 110);
+        index.firstSeen("much-later", 220);
+        assertEquals(baseline, index.memoryBytes());
+    }
+
+    @Test
+    void bloomFalsePositiveRateIsMeasurable() {
+        IdempotencyIndex index = new IdempotencyIndex(Long.MAX_VALUE / 4, 100_000, 0.01);
+        for (int i = 0; i < 100_000; i++) {
+            assertTrue(index.firstSeen("tenant:" + i, 0));
+        }
+        assertEquals(100_000, index.size());
+        assertTrue(index.observedBloomFalsePositiveRate() < 0.02, "fpp " + index.observedBloomFalsePositiveRate());
+    }
+
+    @Test
+    void replayWithWindowedIndexMatchesExactReplay() {
+        Random random = new Random(13);
+        List<ResilienceReplay.ReplayEvent> events = new ArrayList<>();
+        for (int i = 0; i < 50_000; i++) {
+            long version = 1 + i;
+            String key = random.nextInt(4) == 0 && i > 10 ? "k" + (i - 1 - random.nextInt(10)) : "k" + i;
+            events.add(new ResilienceReplay.ReplayEvent(version, key, random.nextInt(5) - 2, random.nextInt(5) - 2));
+        }
+        ResilienceReplay replay = new ResilienceReplay();
+        assertEquals(replay.replay(7, 3, 0, events),
+                replay.replay(7, 3, 0, events, new IdempotencyIndex(64, 128, 0.01)));
+    }
+}
@@ -0,0 +1,26 @@
+package com.terminalbench.transitcore;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Sequential replay against tenant-partitioned replay at increasing pool sizes.
+ * Run with: {@code java -cp target/classes:target/test-classes com.terminalbench.transitcore.PartitionedReplayBenchmark}
+ */
+public final class PartitionedReplayBenchmark {
+    public static void main(String[] args) {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        List<ResilienceReplay.ReplayEvent> events = PartitionedReplayTest.events(size, 1, false);
+        ResilienceReplay sequential = new ResilienceReplay();
+        Benchmarks.run("sequential replay", size, () -> sequential.replay(0, 0, 0, events).inflight());
+
+        int cores = Runtime.getRuntime().availableProcessors();
+        for (int parallelism = 1; parallelism <= cores; parallelism *= 2) {
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            PartitionedReplay partitioned = new PartitionedReplay(pool, PartitionedReplay::tenantPrefix, parallelism * 4);
+            Benchmarks.run("partitioned replay, " + parallelism + " workers", size,
+                    () -> partitioned.replay(0, 0, 0, events).inflight());
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.terminalbench.transitcore;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.jupiter.api.Test;
+
+class PartitionedReplayTest {
+    @Test
+    void matchesSequentialReplayWithTenantVersions() {
+        List<ResilienceReplay.ReplayEvent> events = events(50_000, 17, false);
+        PartitionedReplay partitioned = new PartitionedReplay(ForkJoinPool.commonPool(), PartitionedReplay::tenantPrefix, 16);
+        assertEquals(new ResilienceReplay().replay(100, 50, 0, events), partitioned.replay(100, 50, 0, events));
+        assertEquals(new ResilienceReplay().replay(100, 50, 60_000, events), partitioned.replay(100, 50, 60_000, events));
+    }
+
+    @Test
+    void matchesSequentialReplayWhenVersionsCollideAcrossTenants() {
+        List<ResilienceReplay.ReplayEvent> events = events(20_000, 29, true);
+        PartitionedReplay partitioned = new PartitionedReplay(ForkJoinPool.commonPool(), PartitionedReplay::tenantPrefix, 8);
+        assertEquals(new ResilienceReplay().replay(0, 0, 10, events), partitioned.replay(0, 0, 10, events));
+    }
+
+    @Test
+    void runsOnVirtualThreads() {
+        List<ResilienceReplay.ReplayEvent> events = events(5_000, 3, false);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            PartitionedReplay partitioned = new PartitionedReplay(executor, PartitionedReplay::tenantPrefix, 4);
+            assertEquals(new ResilienceReplay().replay(1, 2, 0, events), partitioned.replay(1, 2, 0, events));
+        }
+    }
+
+    // Each tenant owns a disjoint slice of versions unless sharedVersions is set, in which case
+    // tenants draw from one small version range and collide.
+    static List<ResilienceReplay.ReplayEvent> events(int count, long seed, boolean sharedVersions) {
+        Random random = new Random(seed);
+        List<ResilienceReplay.ReplayEvent> events = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int tenant = random.nextInt(64);
+            long version = sharedVersions ? random.nextInt(count / 4) : (long) i * 64 + tenant;
+            String key = "t" + tenant + ":" + random.nextInt(count / 3);
+            events.add(new ResilienceReplay.ReplayEvent(version, key, random.nextInt(7) - 3, random.nextInt(7) - 3));
+        }
+        Collections.shuffle(events, random);
+        return events;
+    }
+}
@@ -0,0 +1,66 @@
+package com.terminalbench.transitcore;
+
+import java.util.Random;
+
+/**
+ * Permission checks through {@link SecurityPolicy#allowed} against {@link PermissionMatrix}, by
+ * name and with pre-interned ids.
+ * Run with: {@code java -cp target/classes:target/test-classes com.terminalbench.transitcore.PermissionMatrixBenchmark [checks]}
+ */
+public final class PermissionMatrixBenchmark {
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        String[] roles = {"operator", "reviewer", "admin"};
+        String[] actionNames = {"read", "submit", "approve", "override"};
+        String[] tenantNames = {"acme", "globex", "initech"};
+        SecurityPolicy policy = new SecurityPolicy();
+        PermissionMatrix matrix = PermissionMatrix.standardBuilder()
+                .deny("acme", "reviewer", "approve")
+                .grant("globex", "operator", "approve")
+                .build();
+        Random random = new Random(25);
+        String[] roleNames = new String[n];
+        String[] actions = new String[n];
+        String[] tenants = new String[n];
+        int[] roleIds = new int[n];
+        int[] actionIds = new int[n];
+        int[] layers = new int[n];
+        for (int i = 0; i < n; i++) {
+            roleNames[i] = roles[random.nextInt(roles.length)];
+            actions[i] = actionNames[random.nextInt(actionNames.length)];
+            tenants[i] = tenantNames[random.nextInt(tenantNames.length)];
+            roleIds[i] = matrix.roleId(roleNames[i]);
+            actionIds[i] = matrix.actionId(actions[i]);
+            layers[i] = matrix.tenantLayer(tenants[i]);
+        }
+
+        Benchmarks.run("SecurityPolicy.allowed", n, () -> {
+            long allowed = 0;
+            for (int i = 0; i < n; i++) {
+                allowed += policy.allowed(roleNames[i], actions[i]) ? 1 : 0;
+            }
+            return allowed;
+        });
+        Benchmarks.run("matrix allowed(role, action) by name", n, () -> {
+            long allowed = 0;
+            for (int i = 0; i < n; i++) {
+                allowed += matrix.allowed(roleNames[i], actions[i]) ? 1 : 0;
+            }
+            return allowed;
+        });
+        Benchmarks.run("matrix allowed(tenant, role, action) by name", n, () -> {
+            long allowed = 0;
+            for (int i = 0; i < n; i++) {
+                allowed += matrix.allowed(tenants[i], roleNames[i], actions[i]) ? 1 : 0;
+            }
+            return allowed;
+        });
+        Benchmarks.run("matrix allowed(layer, role, action) interned", n, () -> {
+            long allowed = 0;
+            for (int i = 0; i < n; i++) {
+                allowed += matrix.allowed(layers[i], roleIds[i], actionIds[i]) ? 1 : 0;
+            }
+            return allowed;
+        });
+    }
+}
@@ -0,0 +1,48 @@
+package com.terminalbench.transitcore;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class PermissionMatrixTest {
+    @Test
+    void standardMatrixMatchesSecurityPolicy() {
+        SecurityPolicy policy = new SecurityPolicy();
+        PermissionMatrix matrix = PermissionMatrix.standard();
+        for (String role : List.of("operator", "reviewer", "admin", "guest", "")) {
+            for (String action : List.of("read", "submit", "approve", "override", "delete")) {
+                assertEquals(policy.allowed(role, action), matrix.allowed(role, action), role + ":" + action);
+            }
+        }
+    }
+
+    @Test
+    void tenantOverridesFlowDownTheHierarchy() {
+        PermissionMatrix matrix = PermissionMatrix.standardBuilder()
+                .grant("acme", "operator", "export")
+                .deny("acme", "reviewer", "approve")
+                .deny("strict", "admin", "override")
+                .build();
+        assertTrue(matrix.allowed("acme", "operator", "export"));
+        assertTrue(matrix.allowed("acme", "admin", "export"));
+        assertFalse(matrix.allowed("acme", "reviewer", "approve"));
+        assertFalse(matrix.allowed("acme", "admin", "approve"));
+        assertTrue(matrix.allowed("acme", "admin", "override"));
+        assertFalse(matrix.allowed("strict", "admin", "override"));
+        assertTrue(matrix.allowed("strict", "reviewer", "approve"));
+        assertTrue(matrix.allowed("other", "reviewer", "approve"));
+        assertFalse(matrix.allowed("other", "operator", "export"));
+        assertFalse(matrix.allowed(matrix.roleId("admin"), PermissionMatrix.NONE));
+    }
+
+    @Test
+    void parentsMustBeDeclaredFirst() {
+        PermissionMatrix.Builder builder = new PermissionMatrix.Builder();
+        assertThrows(IllegalArgumentException.class, () -> builder.role("admin", "reviewer", "override"));
+        assertThrows(IllegalArgumentException.class, () -> builder.grant("acme", "ghost", "read"));
+    }
+}
@@ -0,0 +1,88 @@
+package com.terminalbench.transitcore;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class QuantileSketchTest {
+    private static final double[] QUANTILES = {0.001, 0.01, 0.1, 0.25, 0.5, 0.75, 0.9, 0.95, 0.99, 0.999};
+
+    @Test
+    void uniformInputTracksExactPercentile() {
+        Random random = new Random(7);
+        double[] values = new double[200_000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = random.nextDouble() * 1_000.0;
+        }
+        assertWithinRankBound(values, new StatisticsReducer().sketch(values));
+    }
+
+    @Test
+    void skewedInputTracksExactPercentile() {
+        Random random = new Random(11);
+        double[] values = new double[200_000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = Math.exp(random.nextGaussian() * 2.0) * 40.0;
+        }
+        assertWithinRankBound(values, new StatisticsReducer().sketch(values));
+    }
+
+    @Test
+    void mergedPerThreadSketchesMatchSingleSketch() {
+        Random random = new Random(23);
+        double[] values = new double[160_000];
+        QuantileSketch merged = new QuantileSketch();
+        for (int part = 0; part < 8; part++) {
+            QuantileSketch local = new QuantileSketch();
+            for (int i = part * 20_000; i < (part + 1) * 20_000; i++) {
+                values[i] = -Math.log(1.0 - random.nextDouble()) * 250.0;
+                local.add(values[i]);
+            }
+            merged.merge(local);
+        }
+        assertEquals(values.length, merged.count());
+        assertWithinRankBound(values, merged);
+    }
+
+    @Test
+    void memoryStaysBounded() {
+        QuantileSketch sketch = new QuantileSketch();
+        Random random = new Random(3);
+        for (int i = 0; i < 1_000_000; i++) {
+            sketch.add(random.nextGaussian());
+        }
+        assertTrue(sketch.centroidCount() <= 2 * QuantileSketch.DEFAULT_COMPRESSION);
+    }
+
+    @Test
+    void extremesAndEmptySketch() {
+        QuantileSketch sketch = new QuantileSketch();
+        assertThrows(IllegalArgumentException.class, () -> sketch.quantile(0.5));
+        sketch.addAll(new double[] {1, 3, 5, 7, 9});
+        assertEquals(1.0, sketch.quantile(0.0), 1e-9);
+        assertEquals(9.0, sketch.quantile(1.0), 1e-9);
+        assertEquals(5.0, sketch.quantile(0.5), 1e-9);
+    }
+
+    private static void assertWithinRankBound(double[] values, QuantileSketch sketch) {
+        StatisticsReducer reducer = new StatisticsReducer();
+        double[] sorted = Arrays.copyOf(values, values.length);
+        Arrays.sort(sorted);
+        for (double q : QUANTILES) {
+            double exactRank = rank(sorted, reducer.percentile(values, q));
+            double sketchRank = rank(sorted, sketch.quantile(q));
+            double bound = Math.PI * Math.sqrt(q * (1 - q)) / QuantileSketch.DEFAULT_COMPRESSION + 2.0 / values.length;
+            assertTrue(Math.abs(exactRank - sketchRank) <= bound,
+                    "q=" + q + " exactRank=" + exactRank + " sketchRank=" + sketchRank + " bound=" + bound);
+        }
+    }
+
+    private static double rank(double[] sorted, double value) {
+        int index = Arrays.binarySearch(sorted, value);
+        return (index >= 0 ? index : -index - 1) / (double) sorted.length;
+    }
+}
@@ -0,0 +1,32 @@
+package com.terminalbench.transitcore;
+
+import java.util.Random;
+
+/**
+ * Throughput of {@link ReorderBuffer} as the arrival skew grows: events advance one second per
+ * hundred arrivals and each is delayed by a uniform random amount up to the skew.
+ * Run with: {@code java -cp target/classes:target/test-classes com.terminalbench.transitcore.ReorderBufferBenchmark}
+ */
+public final class ReorderBufferBenchmark {
+    private static final int EVENTS = 2_000_000;
+
+    public static void main(String[] args) {
+        for (int skew : new int[] {0, 10, 100, 1_000, 10_000}) {
+            long[] timestamps = new long[EVENTS];
+            Random random = new Random(skew);
+            for (int i = 0; i < EVENTS; i++) {
+                timestamps[i] = 100_000 + i / 100 - (skew == 0 ? 0 : random.nextInt(skew));
+            }
+            long[] checksum = new long[1];
+            Benchmarks.run("reorder, skew " + skew + "s", EVENTS, () -> {
+                ReorderBuffer<Object> buffer = new ReorderBuffer<>(skew, Long.MAX_VALUE, e -> 32,
+                        (ts, e) -> checksum[0] += ts);
+                for (long ts : timestamps) {
+                    buffer.offer(ts, buffer);
+                }
+                buffer.flush();
+                return checksum[0] + buffer.late();
+            });
+        }
+    }
+}
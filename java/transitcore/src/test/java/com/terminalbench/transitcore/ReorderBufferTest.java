@@ -0,0 +1,71 @@
+package com.terminalbench.transitcore;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class ReorderBufferTest {
+    @Test
+    void releasesInEventTimeOrderOnceWatermarkPasses() {
+        List<String> out = new ArrayList<>();
+        ReorderBuffer<String> buffer = new ReorderBuffer<>(5, 1_000, e -> 1, (ts, e) -> out.add(ts + ":" + e));
+        assertEquals(ReorderBuffer.Admission.BUFFERED, buffer.offer(103, "c"));
+        buffer.offer(101, "a");
+        buffer.offer(101, "b");
+        assertTrue(out.isEmpty());
+        buffer.offer(107, "d");
+        assertEquals(List.of("101:a", "101:b"), out);
+        assertEquals(102, buffer.watermark());
+        assertEquals(ReorderBuffer.Admission.LATE, buffer.offer(100, "late"));
+        buffer.flush();
+        assertEquals(List.of("101:a", "101:b", "103:c", "107:d"), out);
+        assertEquals(0, buffer.bufferedBytes());
+    }
+
+    @Test
+    void eventAtAnExplicitWatermarkIsReleasedImmediately() {
+        List<String> out = new ArrayList<>();
+        ReorderBuffer<String> buffer = new ReorderBuffer<>(5, 1_000, e -> 1, (ts, e) -> out.add(ts + ":" + e));
+        buffer.advanceWatermark(200);
+        assertEquals(ReorderBuffer.Admission.BUFFERED, buffer.offer(200, "on"));
+        assertEquals(List.of("200:on"), out);
+        assertEquals(0, buffer.buffered());
+    }
+
+    @Test
+    void refusesEventsPastTheMemoryCap() {
+        List<Long> out = new ArrayList<>();
+        ReorderBuffer<byte[]> buffer = new ReorderBuffer<>(100, 300, e -> e.length, (ts, e) -> out.add(ts));
+        assertEquals(ReorderBuffer.Admission.BUFFERED, buffer.offer(10, new byte[100]));
+        assertEquals(ReorderBuffer.Admission.BUFFERED, buffer.offer(5, new byte[200]));
+        assertEquals(ReorderBuffer.Admission.FULL, buffer.offer(7, new byte[1]));
+        assertEquals(1, buffer.refused());
+        buffer.advanceWatermark(5);
+        assertEquals(List.of(5L), out);
+        assertEquals(ReorderBuffer.Admission.BUFFERED, buffer.offer(7, new byte[1]));
+    }
+
+    @Test
+    void skewedStreamComesOutSorted() {
+        Random random = new Random(6);
+        List<Long> out = new ArrayList<>();
+        ReorderBuffer<Long> buffer = new ReorderBuffer<>(50, Long.MAX_VALUE, e -> 16, (ts, e) -> out.add(ts));
+        int accepted = 0;
+        for (int i = 0; i < 100_000; i++) {
+            long ts = 1_000 + i / 10 - random.nextInt(50);
+            if (buffer.offer(ts, ts) == ReorderBuffer.Admission.BUFFERED) {
+                accepted += 1;
+            }
+        }
+        buffer.flush();
+        assertEquals(accepted, out.size());
+        assertEquals(100_000, accepted + buffer.late());
+        for (int i = 1; i < out.size(); i++) {
+            assertTrue(out.get(i - 1) <= out.get(i));
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.terminalbench.transitcore;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ReplayCheckpointsTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void checkpointedReplayMatchesFullReplay() throws IOException {
+        List<ResilienceReplay.ReplayEvent> events = events(10_000);
+        Path log = write(events);
+        ResilienceReplay replay = new ResilienceReplay();
+        ReplayCheckpoints checkpoints = new ReplayCheckpoints(dir.resolve("tenant-a.ckpt"), "tenant-a", 1_000, 50);
+
+        for (long target : new long[] {2_500, 7_777, 12_000, 40_000, 40_000}) {
+            assertEquals(replay.replay(30, 20, 0, upTo(events, target)),
+                    replay.replayFromCheckpoint(30, 20, 0, target, log, checkpoints), "target " + target);
+        }
+        assertTrue(checkpoints.count() > 10);
+        assertEquals(39_001, checkpoints.nearestAtOrBelow(39_500).version());
+    }
+
+    @Test
+    void checkpointsSurviveReopenAndCompact() throws IOException {
+        Path file = dir.resolve("tenant-b.ckpt");
+        ReplayCheckpoints checkpoints = new ReplayCheckpoints(file, "tenant-b", 10, 4);
+        for (int i = 1; i <= 7; i++) {
+            checkpoints.record(new ResilienceReplay.ReplaySnapshot(i, -i, i * 10L, i));
+        }
+        assertEquals(7, checkpoints.count());
+        checkpoints.maybeRecord(new ResilienceReplay.ReplaySnapshot(0, 0, 75, 0));
+        assertEquals(7, checkpoints.count());
+        checkpoints.record(new ResilienceReplay.ReplaySnapshot(8, -8, 80, 8));
+        checkpoints.record(new ResilienceReplay.ReplaySnapshot(9, -9, 90, 9));
+        assertEquals(4, checkpoints.count());
+
+        ReplayCheckpoints reopened = new ReplayCheckpoints(file, "tenant-b", 10, 4);
+        assertEquals(4, reopened.count());
+        assertEquals(90, reopened.lastVersion());
+        assertEquals(new ResilienceReplay.ReplaySnapshot(8, -8, 80, 8), reopened.nearestAtOrBelow(89));
+        assertNull(reopened.nearestAtOrBelow(59));
+        assertThrows(IllegalArgumentException.class,
+                () -> reopened.record(new ResilienceReplay.ReplaySnapshot(0, 0, 90, 0)));
+        assertThrows(IOException.class, () -> new ReplayCheckpoints(file, "tenant-c", 10, 4));
+    }
+
+    @Test
+    void keysReDeliveredAcrossCheckpointsAreAppliedOnce() throws IOException {
+        List<ResilienceReplay.ReplayEvent> events = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            events.add(new ResilienceReplay.ReplayEvent(i + 1, "k" + i, 1, 2));
+        }
+        for (int i = 0; i < 10; i++) {
+            events.add(new ResilienceReplay.ReplayEvent(41 + i, "k" + i, 100, 100));
+        }
+        events.add(new ResilienceReplay.ReplayEvent(60, "fresh", 3, 3));
+        Path log = write(events);
+        ResilienceReplay replay = new ResilienceReplay();
+        ResilienceReplay.ReplaySnapshot full = replay.replay(0, 0, 0, events);
+        assertEquals(41, full.applied());
+
+        ReplayCheckpoints exact = new ReplayCheckpoints(dir.resolve("exact.ckpt"), "tenant-a", 5, 50);
+        for (long target : new long[] {30, 45, 60, 60}) {
+            assertEquals(replay.replay(0, 0, 0, upTo(events, target)),
+                    replay.replayFromCheckpoint(0, 0, 0, target, log, exact), "target " + target);
+        }
+        assertTrue(exact.nearestAtOrBelow(59).version() <= 40);
+
+        ReplayCheckpoints windowed = new ReplayCheckpoints(dir.resolve("windowed.ckpt"), "tenant-a", 5, 50);
+        for (long target : new long[] {30, 60}) {
+            ResilienceReplay.ReplaySnapshot resumed = replay.replayFromCheckpoint(0, 0, 0, target, log, windowed,
+                    new IdempotencyIndex(1_000, 64, 0.01));
+            assertEquals(replay.replay(0, 0, 0, upTo(events, target)).applied(), resumed.applied(), "target " + target);
+        }
+    }
+
+    @Test
+    void checkpointsWithoutFilterStateAreNotResumedFrom() throws IOException {
+        List<ResilienceReplay.ReplayEvent> events = List.of(
+                new ResilienceReplay.ReplayEvent(1, "a", 1, 1),
+                new ResilienceReplay.ReplayEvent(2, "b", 1, 1),
+                new ResilienceReplay.ReplayEvent(3, "a", 1, 1));
+        Path log = write(events);
+        ReplayCheckpoints checkpoints = new ReplayCheckpoints(dir.resolve("bare.ckpt"), "tenant-a", 1, 10);
+        checkpoints.record(new ResilienceReplay.ReplaySnapshot(2, 2, 2, 2));
+        ResilienceReplay replay = new ResilienceReplay();
+        assertEquals(replay.replay(0, 0, 0, events), replay.replayFromCheckpoint(0, 0, 0, 3, log, checkpoints));
+    }
+
+    @Test
+    void exactFilterCheckpointsWriteDeltasAndSurviveCompaction() throws IOException {
+        List<ResilienceReplay.ReplayEvent> events = new ArrayList<>(events(2_000));
+        events.add(new ResilienceReplay.ReplayEvent(9_000, "k0", 50, 50));
+        events.add(new ResilienceReplay.ReplayEvent(9_001, "late", 1, 1));
+        Path log = write(events);
+        ResilienceReplay replay = new ResilienceReplay();
+        ReplayCheckpoints checkpoints = new ReplayCheckpoints(dir.resolve("delta.ckpt"), "tenant-a", 100, 3);
+        for (long target = 500; target <= 8_000; target += 500) {
+            replay.replayFromCheckpoint(0, 0, 0, target, log, checkpoints);
+        }
+        Path newest = checkpoints.statePath(checkpoints.lastVersion());
+        assertEquals(ReplayCheckpoints.DELTA_STATE, Files.readAllBytes(newest)[0]);
+        assertTrue(Files.size(newest) < 500, "delta of " + Files.size(newest) + " bytes");
+
+        assertEquals(replay.replay(0, 0, 0, events), replay.replayFromCheckpoint(0, 0, 0, 9_001, log, checkpoints));
+        try (Stream<Path> files = Files.list(dir)) {
+            assertTrue(files.filter(file -> file.toString().endsWith(".dedup")).count() <= 2 * 3 + 3 + 1);
+        }
+    }
+
+    @Test
+    void resumesFromAnOlderCheckpointWhenTheNewestLostItsState() throws IOException {
+        List<ResilienceReplay.ReplayEvent> events = events(100);
+        Path log = write(events);
+        ResilienceReplay replay = new ResilienceReplay();
+        ReplayCheckpoints checkpoints = new ReplayCheckpoints(dir.resolve("walk.ckpt"), "tenant-a", 40, 10);
+        replay.replayFromCheckpoint(0, 0, 0, 400, log, checkpoints, new IdempotencyIndex(1_000, 64, 0.01));
+        long newest = checkpoints.lastVersion();
+        Files.delete(checkpoints.statePath(newest));
+
+        int[] restores = {0};
+        IdempotencyIndex index = new IdempotencyIndex(1_000, 64, 0.01);
+        ResilienceReplay.CheckpointableFilter counting = new ResilienceReplay.CheckpointableFilter() {
+            @Override
+            public boolean firstSeen(String key, long version) {
+                return index.firstSeen(key, version);
+            }
+
+            @Override
+            public void writeState(DataOutput out) throws IOException {
+                index.writeState(out);
+            }
+
+            @Override
+            public void readState(DataInput in) throws IOException {
+                restores[0] += 1;
+                index.readState(in);
+            }
+        };
+        assertEquals(replay.replay(0, 0, 0, events), replay.replayFromCheckpoint(0, 0, 0, 400, log, checkpoints, counting));
+        assertEquals(1, restores[0]);
+        assertTrue(checkpoints.nearestAtOrBelow(newest - 1).version() < newest);
+    }
+
+    private Path write(List<ResilienceReplay.ReplayEvent> events) throws IOException {
+        Path log = dir.resolve("replay.log");
+        try (ReplayLog.Writer writer = ReplayLog.openWriter(log)) {
+            for (ResilienceReplay.ReplayEvent event : events) {
+                writer.append(event);
+            }
+        }
+        return log;
+    }
+
+    private static List<ResilienceReplay.ReplayEvent> upTo(List<ResilienceReplay.ReplayEvent> events, long target) {
+        return events.stream().filter(event -> event.version() <= target).toList();
+    }
+
+    private static List<ResilienceReplay.ReplayEvent> events(int count) {
+        Random random = new Random(31);
+        List<ResilienceReplay.ReplayEvent> events = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            events.add(new ResilienceReplay.ReplayEvent(1 + i * 4L, "k" + i, random.nextInt(9) - 4, random.nextInt(9) - 4));
+        }
+        return events;
+    }
+}
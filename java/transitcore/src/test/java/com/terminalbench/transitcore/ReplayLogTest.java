@@ -0,0 +1,128 @@
+package com.terminalbench.transitcore;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ReplayLogTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void streamingReplayMatchesInMemoryReplay() throws IOException {
+        List<ResilienceReplay.ReplayEvent> events = events(20_000, 99);
+        Path log = write(events);
+
+        ResilienceReplay replay = new ResilienceReplay();
+        assertEquals(replay.replay(40, 12, 0, events), replay.replay(40, 12, 0, log));
+    }
+
+    @Test
+    void resumesFromVersionOffset() throws IOException {
+        List<ResilienceReplay.ReplayEvent> events = events(20_000, 7);
+        Path log = write(events);
+
+        ResilienceReplay replay = new ResilienceReplay();
+        for (long offset : new long[] {0, 1, 1_024, 3_333, 9_999, 50_000}) {
+            assertEquals(replay.replay(5, 5, offset, events), replay.replay(5, 5, offset, log), "offset " + offset);
+        }
+    }
+
+    @Test
+    void reopenedWriterAppendsAfterTornTail() throws IOException {
+        List<ResilienceReplay.ReplayEvent> events = events(3_000, 3);
+        Path log = dir.resolve("replay.log");
+        try (ReplayLog.Writer writer = ReplayLog.openWriter(log)) {
+            for (ResilienceReplay.ReplayEvent event : events.subList(0, 2_000)) {
+                writer.append(event);
+            }
+        }
+        try (FileChannel channel = FileChannel.open(log, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 3);
+        }
+        try (ReplayLog.Writer writer = ReplayLog.openWriter(log)) {
+            assertEquals(1_999, writer.records());
+            for (ResilienceReplay.ReplayEvent event : events.subList(1_999, events.size())) {
+                writer.append(event);
+            }
+        }
+
+        ResilienceReplay replay = new ResilienceReplay();
+        assertEquals(replay.replay(0, 0, 0, events), replay.replay(0, 0, 0, log));
+    }
+
+    @Test
+    void reopenKeepsVersionOrderWhenTheLastIndexedRecordIsTorn() throws IOException {
+        Path log = dir.resolve("replay.log");
+        try (ReplayLog.Writer writer = ReplayLog.openWriter(log)) {
+            for (int i = 0; i <= ReplayLog.INDEX_STRIDE; i++) {
+                writer.append(new ResilienceReplay.ReplayEvent(10L + i, "k" + i, 1, 1));
+            }
+        }
+        try (FileChannel channel = FileChannel.open(log, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 3);
+        }
+        try (ReplayLog.Writer writer = ReplayLog.openWriter(log)) {
+            assertEquals(ReplayLog.INDEX_STRIDE, writer.records());
+            assertEquals(9L + ReplayLog.INDEX_STRIDE, writer.lastVersion());
+            assertThrows(IllegalArgumentException.class,
+                    () -> writer.append(new ResilienceReplay.ReplayEvent(5, "old", 1, 1)));
+        }
+    }
+
+    @Test
+    void writerRejectsOutOfOrderVersions() throws IOException {
+        try (ReplayLog.Writer writer = ReplayLog.openWriter(dir.resolve("ordered.log"))) {
+            writer.append(new ResilienceReplay.ReplayEvent(5, "a", 1, 1));
+            assertThrows(IllegalArgumentException.class,
+                    () -> writer.append(new ResilienceReplay.ReplayEvent(4, "b", 1, 1)));
+        }
+    }
+
+    @Test
+    void foreignFileIsRejectedWithoutCreatingAnIndex() throws IOException {
+        Path log = dir.resolve("foreign.log");
+        Files.write(log, new byte[64]);
+        assertThrows(IOException.class, () -> ReplayLog.openWriter(log));
+        assertFalse(Files.exists(ReplayLog.indexPath(log)));
+        assertThrows(IOException.class, () -> ReplayLog.openReader(log, 0));
+        Files.write(log, new byte[3]);
+        assertThrows(IOException.class, () -> ReplayLog.openWriter(log));
+        assertEquals(3, Files.size(log));
+    }
+
+    private Path write(List<ResilienceReplay.ReplayEvent> events) throws IOException {
+        Path log = dir.resolve("replay.log");
+        try (ReplayLog.Writer writer = ReplayLog.openWriter(log)) {
+            for (ResilienceReplay.ReplayEvent event : events) {
+                writer.append(event);
+            }
+        }
+        return log;
+    }
+
+    // Version-ordered with repeated versions (keys deliberately out of order within a version)
+    // and re-delivered idempotency keys, as seen after an outage.
+    private static List<ResilienceReplay.ReplayEvent> events(int count, long seed) {
+        Random random = new Random(seed);
+        List<ResilienceReplay.ReplayEvent> events = new ArrayList<>(count);
+        long version = 1;
+        for (int i = 0; i < count; i++) {
+            version += random.nextInt(4) == 0 ? 0 : 1 + random.nextInt(3);
+            String key = "k-" + random.nextInt(count / 2);
+            events.add(new ResilienceReplay.ReplayEvent(version, key, random.nextInt(9) - 4, random.nextInt(9) - 4));
+        }
+        return events;
+    }
+}
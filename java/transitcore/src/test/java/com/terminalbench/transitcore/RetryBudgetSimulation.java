@@ -0,0 +1,99 @@
+package com.terminalbench.transitcore;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Retry amplification through a downstream outage: per-call retries with the lockstep
+ * {@link RetryBudget#backoffMs} against the shared {@link RetryTokenBudget} with jittered backoff.
+ *
+ * <p>Clients send a steady load of first attempts every millisecond; from 2s to 6s every call
+ * fails. Reported per phase: attempts per first attempt (amplification) and the busiest
+ * millisecond, which exposes synchronised retry waves.
+ * Run with: {@code java -cp target/classes:target/test-classes com.terminalbench.transitcore.RetryBudgetSimulation}
+ */
+public final class RetryBudgetSimulation {
+    private static final int MILLIS = 10_000;
+    private static final int OUTAGE_FROM = 2_000;
+    private static final int OUTAGE_TO = 6_000;
+    private static final int CALLS_PER_MILLI = 20;
+    private static final int MAX_ATTEMPTS = 5;
+    private static final int BASE_MS = 20;
+
+    private record Retry(int attempt, long previousBackoff, String tenant) {}
+
+    private interface Strategy {
+        boolean allowRetry(String tenant, int attempt);
+
+        long backoff(int attempt, long previousBackoff);
+
+        void succeeded(String tenant);
+    }
+
+    public static void main(String[] args) {
+        RetryBudget fixed = new RetryBudget();
+        simulate("per-call retries, 2^n backoff", new Strategy() {
+            public boolean allowRetry(String tenant, int attempt) {
+                return fixed.shouldRetry(attempt, MAX_ATTEMPTS, false);
+            }
+
+            public long backoff(int attempt, long previousBackoff) {
+                return fixed.backoffMs(attempt, BASE_MS);
+            }
+
+            public void succeeded(String tenant) {}
+        });
+        RetryTokenBudget budget = new RetryTokenBudget(0.1, 50, 200, BASE_MS, 2_000);
+        Random jitter = new Random(11);
+        simulate("token budget, decorrelated jitter", new Strategy() {
+            public boolean allowRetry(String tenant, int attempt) {
+                return attempt < MAX_ATTEMPTS && budget.tryRetry(tenant);
+            }
+
+            public long backoff(int attempt, long previousBackoff) {
+                return RetryTokenBudget.decorrelatedJitter(BASE_MS, 2_000, previousBackoff, jitter);
+            }
+
+            public void succeeded(String tenant) {
+                budget.onSuccess(tenant);
+            }
+        });
+    }
+
+    private static void simulate(String label, Strategy strategy) {
+        List<List<Retry>> scheduled = new ArrayList<>();
+        for (int i = 0; i < MILLIS + 1; i++) {
+            scheduled.add(new ArrayList<>());
+        }
+        long[] firsts = new long[3];
+        long[] attempts = new long[3];
+        long[] peak = new long[3];
+        for (int now = 0; now < MILLIS; now++) {
+            int phase = now < OUTAGE_FROM ? 0 : now < OUTAGE_TO ? 1 : 2;
+            boolean down = phase == 1;
+            List<Retry> due = new ArrayList<>(scheduled.get(now));
+            for (int c = 0; c < CALLS_PER_MILLI; c++) {
+                due.add(new Retry(0, 0, "tenant-" + (c % 8)));
+            }
+            firsts[phase] += CALLS_PER_MILLI;
+            attempts[phase] += due.size();
+            peak[phase] = Math.max(peak[phase], due.size());
+            for (Retry call : due) {
+                if (!down) {
+                    strategy.succeeded(call.tenant());
+                    continue;
+                }
+                int next = call.attempt() + 1;
+                if (strategy.allowRetry(call.tenant(), next)) {
+                    long backoff = strategy.backoff(next, call.previousBackoff());
+                    int at = (int) Math.min(MILLIS, now + backoff);
+                    scheduled.get(at).add(new Retry(next, backoff, call.tenant()));
+                }
+            }
+        }
+        System.out.printf("%-36s amplification before %.3f  outage %.3f  after %.3f  | peak/ms %d %d %d%n",
+                label, (double) attempts[0] / firsts[0], (double) attempts[1] / firsts[1],
+                (double) attempts[2] / firsts[2], peak[0], peak[1], peak[2]);
+    }
+}
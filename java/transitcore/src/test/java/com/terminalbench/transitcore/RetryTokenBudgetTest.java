@@ -0,0 +1,75 @@
+package com.terminalbench.transitcore;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class RetryTokenBudgetTest {
+    @Test
+    void successesRefillAFractionOfARetry() {
+        RetryTokenBudget budget = new RetryTokenBudget(0.1, 2, 100, 10, 1_000);
+        assertTrue(budget.tryRetry("a"));
+        assertTrue(budget.tryRetry("a"));
+        assertFalse(budget.tryRetry("a"));
+        for (int i = 0; i < 9; i++) {
+            budget.onSuccess("a");
+        }
+        assertFalse(budget.tryRetry("a"));
+        budget.onSuccess("a");
+        assertTrue(budget.tryRetry("a"));
+    }
+
+    @Test
+    void globalBudgetCapsAllTenants() {
+        RetryTokenBudget budget = new RetryTokenBudget(0.1, 10, 3, 10, 1_000);
+        int granted = 0;
+        for (int tenant = 0; tenant < 10; tenant++) {
+            if (budget.tryRetry("tenant-" + tenant)) {
+                granted += 1;
+            }
+        }
+        assertEquals(3, granted);
+        assertEquals(10.0, budget.tokens("tenant-9"), 0.0);
+        assertEquals(0.0, budget.globalTokens(), 0.0);
+    }
+
+    @Test
+    void concurrentRetriesNeverExceedTheBudget() throws InterruptedException {
+        RetryTokenBudget budget = new RetryTokenBudget(0.5, 1_000, 64, 10, 1_000);
+        AtomicInteger granted = new AtomicInteger();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    if (budget.tryRetry("shared")) {
+                        granted.incrementAndGet();
+                    }
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertTrue(granted.get() <= 64, "granted " + granted.get());
+    }
+
+    @Test
+    void decorrelatedJitterStaysWithinBaseAndCap() {
+        Random random = new Random(2);
+        long previous = 10;
+        for (int i = 0; i < 1_000; i++) {
+            long next = RetryTokenBudget.decorrelatedJitter(10, 500, previous, random);
+            assertTrue(next >= 10 && next <= 500 && next <= Math.max(10, 3 * previous), "next " + next);
+            previous = next;
+        }
+        assertThrows(IllegalArgumentException.class, () -> new RetryTokenBudget(0.1, 1, 1, 20, 10));
+    }
+}
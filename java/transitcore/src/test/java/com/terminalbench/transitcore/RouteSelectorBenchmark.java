@@ -0,0 +1,56 @@
+package com.terminalbench.transitcore;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * A few travel-time changes followed by a routing decision: {@link DispatchPlanner#chooseRoute}
+ * rescanning the whole table against {@link RouteSelector} updating its heap.
+ * Run with: {@code java -cp target/classes:target/test-classes com.terminalbench.transitcore.RouteSelectorBenchmark [routes]}
+ */
+public final class RouteSelectorBenchmark {
+    private static final int DECISIONS = 20_000;
+    private static final int UPDATES_PER_DECISION = 4;
+
+    public static void main(String[] args) {
+        int routes = args.length > 0 ? Integer.parseInt(args[0]) : 5_000;
+        String[] names = new String[routes];
+        Map<String, Integer> table = new HashMap<>();
+        Random random = new Random(17);
+        for (int i = 0; i < routes; i++) {
+            names[i] = "route-" + i;
+            table.put(names[i], 10 + random.nextInt(120));
+        }
+        int[] changedRoute = new int[DECISIONS * UPDATES_PER_DECISION];
+        int[] changedMinutes = new int[changedRoute.length];
+        for (int i = 0; i < changedRoute.length; i++) {
+            changedRoute[i] = random.nextInt(routes);
+            changedMinutes[i] = 10 + random.nextInt(120);
+        }
+        DispatchPlanner planner = new DispatchPlanner();
+
+        Benchmarks.run("chooseRoute stream scan, " + routes + " routes", DECISIONS, () -> {
+            Map<String, Integer> live = new HashMap<>(table);
+            long checksum = 0;
+            for (int d = 0, u = 0; d < DECISIONS; d++) {
+                for (int k = 0; k < UPDATES_PER_DECISION; k++, u++) {
+                    live.put(names[changedRoute[u]], changedMinutes[u]);
+                }
+                checksum += planner.chooseRoute(live).length();
+            }
+            return checksum;
+        });
+        Benchmarks.run("RouteSelector heap, " + routes + " routes", DECISIONS, () -> {
+            RouteSelector selector = new RouteSelector(table);
+            long checksum = 0;
+            for (int d = 0, u = 0; d < DECISIONS; d++) {
+                for (int k = 0; k < UPDATES_PER_DECISION; k++, u++) {
+                    selector.update(names[changedRoute[u]], changedMinutes[u]);
+                }
+                checksum += selector.best().length();
+            }
+            return checksum;
+        });
+    }
+}
@@ -0,0 +1,89 @@
+package com.terminalbench.transitcore;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.Test;
+
+class RouteSelectorTest {
+    @Test
+    void picksFastestWithLexicalTieBreak() {
+        RouteSelector selector = new RouteSelector(Map.of("r3", 22, "r2", 14, "r1", 14));
+        assertEquals("r1", selector.best());
+        selector.update("r1", 30);
+        assertEquals("r2", selector.best());
+        selector.update("r0", 14);
+        assertEquals(new RouteSelector.Choice("r0", 14), selector.bestChoice());
+        assertTrue(selector.remove("r0"));
+        assertFalse(selector.remove("r0"));
+        assertEquals("r2", selector.best());
+        assertEquals(3, selector.size());
+    }
+
+    @Test
+    void emptySelectorIsUnassigned() {
+        RouteSelector selector = new RouteSelector();
+        assertEquals(RouteSelector.UNASSIGNED, selector.best());
+        assertNull(selector.bestChoice());
+        selector.update("north", 5);
+        selector.remove("north");
+        assertEquals(RouteSelector.UNASSIGNED, selector.best());
+    }
+
+    @Test
+    void matchesFullScanUnderRandomUpdates() {
+        Random random = new Random(21);
+        Map<String, Integer> table = new HashMap<>();
+        RouteSelector selector = new RouteSelector();
+        for (int i = 0; i < 20_000; i++) {
+            String route = "route-" + random.nextInt(300);
+            if (random.nextInt(10) == 0) {
+                assertEquals(table.remove(route) != null, selector.remove(route));
+            } else {
+                int travel = random.nextInt(40);
+                table.put(route, travel);
+                selector.update(route, travel);
+            }
+            assertEquals(scan(table), selector.best());
+        }
+    }
+
+    @Test
+    void readersAlwaysSeeAPublishedChoice() throws InterruptedException {
+        RouteSelector selector = new RouteSelector(Map.of("a", 10, "b", 20));
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicReference<String> anomaly = new AtomicReference<>();
+        Thread reader = new Thread(() -> {
+            while (running.get()) {
+                RouteSelector.Choice choice = selector.bestChoice();
+                if (choice == null || !(choice.route().equals("a") || choice.route().equals("b"))) {
+                    anomaly.set(String.valueOf(choice));
+                }
+            }
+        });
+        reader.start();
+        Random random = new Random(3);
+        for (int i = 0; i < 200_000; i++) {
+            selector.update(random.nextBoolean() ? "a" : "b", random.nextInt(50));
+        }
+        running.set(false);
+        reader.join();
+        assertNull(anomaly.get());
+    }
+
+    private static String scan(Map<String, Integer> table) {
+        return table.entrySet().stream()
+                .min(Comparator.<Map.Entry<String, Integer>>comparingInt(Map.Entry::getValue)
+                        .thenComparing(Map.Entry::getKey))
+                .map(Map.Entry::getKey)
+                .orElse(RouteSelector.UNASSIGNED);
+    }
+}
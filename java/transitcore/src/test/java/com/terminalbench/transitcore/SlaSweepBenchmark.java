@@ -0,0 +1,42 @@
+package com.terminalbench.transitcore;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Fleet SLA sweep through the scalar {@link SlaModel} methods against {@link SlaSweep},
+ * sequential and on the common pool.
+ * Run with: {@code java -cp target/classes:target/test-classes com.terminalbench.transitcore.SlaSweepBenchmark [shipments]}
+ */
+public final class SlaSweepBenchmark {
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        Random random = new Random(3);
+        long[] eta = new long[n];
+        long[] sla = new long[n];
+        long[] buffer = new long[n];
+        for (int i = 0; i < n; i++) {
+            sla[i] = 10_000 + random.nextInt(5_000);
+            eta[i] = sla[i] + random.nextInt(2_400) - 1_000;
+            buffer[i] = random.nextInt(120);
+        }
+        byte[] severities = new byte[n];
+        SlaModel model = new SlaModel();
+        Benchmarks.run("scalar breachSeverity + breachRisk", n, () -> {
+            long critical = 0;
+            for (int i = 0; i < n; i++) {
+                if (model.breachSeverity(eta[i], sla[i]).equals("critical")) {
+                    critical += 1;
+                }
+                if (model.breachRisk(eta[i], sla[i], buffer[i])) {
+                    critical += 2;
+                }
+            }
+            return critical;
+        });
+        SlaSweep sequential = new SlaSweep(new ForkJoinPool(1), Integer.MAX_VALUE);
+        SlaSweep parallel = new SlaSweep();
+        Benchmarks.run("sweep, sequential", n, () -> sequential.sweep(eta, sla, buffer, severities).atRisk());
+        Benchmarks.run("sweep, common pool", n, () -> parallel.sweep(eta, sla, buffer, severities).atRisk());
+    }
+}
@@ -0,0 +1,56 @@
+package com.terminalbench.transitcore;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.jupiter.api.Test;
+
+class SlaSweepTest {
+    @Test
+    void matchesScalarSeverityAndRisk() {
+        Random random = new Random(10);
+        int n = 200_000;
+        long[] eta = new long[n];
+        long[] sla = new long[n];
+        long[] buffer = new long[n];
+        for (int i = 0; i < n; i++) {
+            sla[i] = 10_000 + random.nextInt(5_000);
+            eta[i] = sla[i] + random.nextInt(2_400) - 1_000;
+            buffer[i] = random.nextInt(120);
+        }
+        byte[] severities = new byte[n];
+        SlaSweep.Summary summary = new SlaSweep(new ForkJoinPool(4), 1_024).sweep(eta, sla, buffer, severities);
+
+        SlaModel model = new SlaModel();
+        long[] histogram = new long[4];
+        long atRisk = 0;
+        for (int i = 0; i < n; i++) {
+            assertEquals(model.breachSeverity(eta[i], sla[i]), SlaModel.severityName(severities[i]));
+            histogram[severities[i]] += 1;
+            if (model.breachRisk(eta[i], sla[i], buffer[i])) {
+                atRisk += 1;
+            }
+        }
+        assertArrayEquals(histogram, summary.histogram());
+        assertEquals(atRisk, summary.atRisk());
+    }
+
+    @Test
+    void smallBatchesRunInline() {
+        long[] eta = {900, 1000, 1200, 1300, 1700, 1900, 2500};
+        long[] sla = {1000, 1000, 1000, 1000, 1000, 1000, 1000};
+        long[] buffer = new long[7];
+        byte[] severities = new byte[7];
+        SlaSweep.Summary summary = new SlaSweep().sweep(eta, sla, buffer, severities);
+        SlaModel model = new SlaModel();
+        for (int i = 0; i < eta.length; i++) {
+            assertEquals(model.breachSeverity(eta[i], sla[i]), SlaModel.severityName(severities[i]));
+        }
+        assertEquals(eta.length, summary.histogram()[0] + summary.histogram()[1] + summary.histogram()[2]
+                + summary.histogram()[3]);
+        assertThrows(IllegalArgumentException.class, () -> new SlaSweep().sweep(eta, sla, new long[1], severities));
+    }
+}
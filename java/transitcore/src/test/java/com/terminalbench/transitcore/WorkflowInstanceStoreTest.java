@@ -0,0 +1,122 @@
+package com.terminalbench.transitcore;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class WorkflowInstanceStoreTest {
+    private final CompiledWorkflow workflow = CompiledWorkflow.compile(new WorkflowOrchestrator());
+
+    @Test
+    void transitionsFollowTheTableAndCountsTrackStates() {
+        WorkflowInstanceStore store = new WorkflowInstanceStore(workflow, 100_000);
+        long a = store.create("drafted");
+        long b = store.create("drafted");
+        assertTrue(store.transition(a, "drafted", "validated"));
+        assertFalse(store.transition(b, "drafted", "dispatched"));
+        assertFalse(store.transition(a, "drafted", "validated"));
+        assertTrue(store.transition(a, "validated", "capacity_checked"));
+        assertEquals(1, store.count("capacity_checked"));
+        assertEquals(1, store.count("drafted"));
+
+        List<Long> stuck = new ArrayList<>();
+        assertEquals(1, store.scan("capacity_checked", stuck::add));
+        assertEquals(List.of(a), stuck);
+
+        assertEquals(workflow.stateId("canceled"), store.fire(b, "cancel"));
+        assertEquals(CompiledWorkflow.NO_STATE, store.fire(b, "cancel"));
+        assertTrue(store.remove(b));
+        assertNull(store.stateName(b));
+        assertEquals(0, store.count("canceled"));
+        long reused = store.create("drafted");
+        assertEquals(WorkflowInstanceStore.slotOf(b), WorkflowInstanceStore.slotOf(reused));
+        assertNotEquals(b, reused);
+        assertNull(store.stateName(b));
+        assertEquals("drafted", store.stateName(reused));
+        assertThrows(IllegalArgumentException.class, () -> store.create("nowhere"));
+    }
+
+    @Test
+    void staleHandlesCannotTouchARecreatedInstance() throws InterruptedException {
+        WorkflowInstanceStore store = new WorkflowInstanceStore(workflow, 16);
+        long stale = store.create("drafted");
+        assertTrue(store.remove(stale));
+        long[] live = {store.create("drafted")};
+        int drafted = workflow.stateId("drafted");
+        int validated = workflow.stateId("validated");
+        AtomicInteger staleWins = new AtomicInteger();
+        Thread churn = new Thread(() -> {
+            for (int i = 0; i < 200_000; i++) {
+                store.remove(live[0]);
+                live[0] = store.create("drafted");
+            }
+        });
+        Thread holder = new Thread(() -> {
+            for (int i = 0; i < 200_000; i++) {
+                if (store.transition(stale, drafted, validated) || store.fire(stale, "cancel") != CompiledWorkflow.NO_STATE
+                        || store.remove(stale)) {
+                    staleWins.incrementAndGet();
+                }
+            }
+        });
+        churn.start();
+        holder.start();
+        churn.join();
+        holder.join();
+        assertEquals(0, staleWins.get());
+        assertEquals(1, store.count("drafted"));
+        assertEquals(0, store.count("validated") + store.count("canceled"));
+        assertEquals("drafted", store.stateName(live[0]));
+        assertEquals(WorkflowInstanceStore.slotOf(stale), WorkflowInstanceStore.slotOf(live[0]));
+    }
+
+    @Test
+    void racingWritersApplyEachTransitionOnce() throws InterruptedException {
+        int instances = 200_000;
+        WorkflowInstanceStore store = new WorkflowInstanceStore(workflow, instances);
+        for (int i = 0; i < instances; i++) {
+            store.create("drafted");
+        }
+        int drafted = workflow.stateId("drafted");
+        int validated = workflow.stateId("validated");
+        AtomicInteger wins = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                int won = 0;
+                for (long id = 0; id < instances; id++) {
+                    if (store.transition(id, drafted, validated)) {
+                        won += 1;
+                    }
+                }
+                wins.addAndGet(won);
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(instances, wins.get());
+        assertEquals(instances, store.count("validated"));
+        assertEquals(0, store.count("drafted"));
+        assertEquals(instances, store.scan(validated, id -> {}));
+    }
+}